@@ -0,0 +1,410 @@
+package com.example.jcparser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes synthetic class files that push one structure towards the limits of the
+ * <a href="https://docs.oracle.com/javase/specs/jvms/se17/html/jvms-4.html#jvms-4.11">4.11. Limitations of the Java
+ * Virtual Machine</a>, to find the parts of the parser and the printer that do not scale linearly.
+ * The class files are well-formed for the parser, they are not meant to pass verification.
+ */
+public final class ClassFileGenerator {
+	public static final int MAX_CONSTANT_POOL_COUNT = 0xFFFF;
+	public static final int MAX_CODE_LENGTH = 0xFFFF;
+	/**
+	 * Element values are read recursively, deeper annotations need a larger thread stack.
+	 */
+	public static final int MAX_ANNOTATION_DEPTH = 1000;
+	private static final int MAJOR_VERSION = 61;
+	private static final int ACC_PUBLIC_STATIC = 0x0009;
+
+	private ClassFileGenerator() {
+	}
+
+	public enum Shape {
+		CONSTANT_POOL, CODE, TABLESWITCH, LOOKUPSWITCH, NESTED_ANNOTATIONS, STACK_MAP_FRAMES;
+
+		/**
+		 * @param size count of constants, code bytes, switch cases, annotation levels or frames,
+		 *             lowered to what fits in a class file
+		 */
+		public byte[] generate(int size) {
+			return switch (this) {
+				case CONSTANT_POOL -> constantPool(size);
+				case CODE -> code(size);
+				case TABLESWITCH -> tableSwitch(size);
+				case LOOKUPSWITCH -> lookupSwitch(size);
+				case NESTED_ANNOTATIONS -> nestedAnnotations(size);
+				case STACK_MAP_FRAMES -> stackMapFrames(size);
+			};
+		}
+	}
+
+	/**
+	 * Writes every shape with the size to the directory, to be dumped with the command line.
+	 * Arguments: directory and size.
+	 */
+	public static void main(String[] args) throws IOException {
+		Path directory = Files.createDirectories(Path.of(args[0]));
+		int size = Integer.parseInt(args[1]);
+		for (Shape shape : Shape.values()) {
+			Files.write(directory.resolve(shape + "_" + size + ".class"), shape.generate(size));
+		}
+	}
+
+	/**
+	 * Class whose constant pool has {@code count - 1} entries of every kind, up to 65534.
+	 */
+	public static byte[] constantPool(int count) {
+		ConstantPool pool = new ConstantPool();
+		ClassWriter writer = new ClassWriter(pool, "ConstantPool" + count);
+		int limit = Math.min(count, MAX_CONSTANT_POOL_COUNT);
+		for (int i = 0; pool.count < limit; i++) {
+			if (limit - pool.count < 8) {
+				pool.utf8("utf8_" + i);
+				continue;
+			}
+			switch (i % 6) {
+				case 0 -> pool.utf8("utf8_" + i);
+				case 1 -> pool.integer(i);
+				case 2 -> pool.string("string_" + i);
+				case 3 -> pool.classRef("pkg/Class" + i);
+				case 4 -> pool.methodRef("pkg/Owner", "method" + i, "(I)V");
+				case 5 -> pool.longValue(i);
+			}
+		}
+		return writer.toByteArray();
+	}
+
+	/**
+	 * Static method with {@code length} bytes of loads, field accesses, calls and {@code nop}s.
+	 */
+	public static byte[] code(int length) {
+		ConstantPool pool = new ConstantPool();
+		ClassWriter writer = new ClassWriter(pool, "Code" + length);
+		int codeLength = Math.min(Math.max(length, 1), MAX_CODE_LENGTH);
+		ByteArrayOutputStream code = new ByteArrayOutputStream(codeLength);
+		int i = 0;
+		while (code.size() + 16 < codeLength) {
+			u1(code, 0x11); // sipush
+			u2(code, i);
+			u1(code, 0x57); // pop
+			u1(code, 0x13); // ldc_w
+			u2(code, pool.string("string_" + i % 1000));
+			u1(code, 0x57);
+			u1(code, 0xB2); // getstatic
+			u2(code, pool.fieldRef("pkg/Owner", "field" + i % 1000, "I"));
+			u1(code, 0x57);
+			u1(code, 0xB8); // invokestatic
+			u2(code, pool.methodRef("pkg/Owner", "method" + i % 1000, "()V"));
+			i++;
+		}
+		while (code.size() < codeLength - 1) {
+			u1(code, 0x00); // nop
+		}
+		u1(code, 0xB1); // return
+		writer.method("code", code.toByteArray(), null);
+		return writer.toByteArray();
+	}
+
+	/**
+	 * Static method with one {@code tableswitch} of {@code cases} jump offsets, all to the {@code return}.
+	 */
+	public static byte[] tableSwitch(int cases) {
+		ConstantPool pool = new ConstantPool();
+		ClassWriter writer = new ClassWriter(pool, "TableSwitch" + cases);
+		int count = Math.max(1, Math.min(cases, (MAX_CODE_LENGTH - 20) / 4));
+		ByteArrayOutputStream code = new ByteArrayOutputStream();
+		u1(code, 0x03); // iconst_0
+		int switchOffset = code.size();
+		u1(code, 0xAA); // tableswitch
+		pad(code);
+		int target = code.size() + 3 * 4 + count * 4 - switchOffset;
+		u4(code, target);
+		u4(code, 0);
+		u4(code, count - 1);
+		for (int i = 0; i < count; i++) {
+			u4(code, target);
+		}
+		u1(code, 0xB1);
+		writer.method("tableSwitch", code.toByteArray(), null);
+		return writer.toByteArray();
+	}
+
+	/**
+	 * Static method with one {@code lookupswitch} of {@code pairs} sorted match-offset pairs.
+	 */
+	public static byte[] lookupSwitch(int pairs) {
+		ConstantPool pool = new ConstantPool();
+		ClassWriter writer = new ClassWriter(pool, "LookupSwitch" + pairs);
+		int count = Math.max(1, Math.min(pairs, (MAX_CODE_LENGTH - 20) / 8));
+		ByteArrayOutputStream code = new ByteArrayOutputStream();
+		u1(code, 0x03);
+		int switchOffset = code.size();
+		u1(code, 0xAB); // lookupswitch
+		pad(code);
+		int target = code.size() + 2 * 4 + count * 8 - switchOffset;
+		u4(code, target);
+		u4(code, count);
+		for (int i = 0; i < count; i++) {
+			u4(code, i * 7 - count);
+			u4(code, target);
+		}
+		u1(code, 0xB1);
+		writer.method("lookupSwitch", code.toByteArray(), null);
+		return writer.toByteArray();
+	}
+
+	/**
+	 * Class with one {@code RuntimeVisibleAnnotations} attribute holding an annotation nested {@code depth} levels
+	 * deep, up to {@link #MAX_ANNOTATION_DEPTH}, every level also has an array and an enum value.
+	 */
+	public static byte[] nestedAnnotations(int depth) {
+		ConstantPool pool = new ConstantPool();
+		ClassWriter writer = new ClassWriter(pool, "NestedAnnotations" + depth);
+		int type = pool.utf8("Lpkg/Nested;");
+		int value = pool.utf8("value");
+		int array = pool.utf8("array");
+		int enumType = pool.utf8("Lpkg/Kind;");
+		int enumName = pool.utf8("FIRST");
+		int number = pool.integer(42);
+		ByteArrayOutputStream annotations = new ByteArrayOutputStream();
+		u2(annotations, 1);
+		for (int i = 0; i < Math.min(depth, MAX_ANNOTATION_DEPTH); i++) {
+			u2(annotations, type);
+			u2(annotations, 2);
+			u2(annotations, array);
+			u1(annotations, '[');
+			u2(annotations, 2);
+			u1(annotations, 'I');
+			u2(annotations, number);
+			u1(annotations, 'e');
+			u2(annotations, enumType);
+			u2(annotations, enumName);
+			u2(annotations, value);
+			u1(annotations, '@');
+		}
+		u2(annotations, type);
+		u2(annotations, 0);
+		writer.classAttribute(pool.utf8("RuntimeVisibleAnnotations"), annotations.toByteArray());
+		return writer.toByteArray();
+	}
+
+	/**
+	 * Static method with a {@code StackMapTable} of {@code count} frames, one per instruction, cycling through the
+	 * same, same locals 1 stack item and full frame types.
+	 */
+	public static byte[] stackMapFrames(int count) {
+		ConstantPool pool = new ConstantPool();
+		ClassWriter writer = new ClassWriter(pool, "StackMapFrames" + count);
+		int frames = Math.max(1, Math.min(count, MAX_CODE_LENGTH - 1));
+		byte[] code = new byte[frames + 1];
+		code[frames] = (byte) 0xB1;
+		ByteArrayOutputStream table = new ByteArrayOutputStream();
+		u2(table, frames);
+		for (int i = 0; i < frames; i++) {
+			switch (i % 3) {
+				case 0 -> u1(table, 0); // same_frame, offset delta 0
+				case 1 -> {
+					u1(table, 64); // same_locals_1_stack_item_frame
+					u1(table, 1); // ITEM_Integer
+				}
+				case 2 -> {
+					u1(table, 255); // full_frame
+					u2(table, 0);
+					u2(table, 1);
+					u1(table, 1);
+					u2(table, 0);
+				}
+			}
+		}
+		writer.method("stackMapFrames", code, table.toByteArray());
+		return writer.toByteArray();
+	}
+
+	private static void pad(ByteArrayOutputStream code) {
+		while (code.size() % 4 != 0) {
+			u1(code, 0);
+		}
+	}
+
+	private static void u1(ByteArrayOutputStream out, int value) {
+		out.write(value);
+	}
+
+	private static void u2(ByteArrayOutputStream out, int value) {
+		out.write(value >>> 8);
+		out.write(value);
+	}
+
+	private static void u4(ByteArrayOutputStream out, int value) {
+		u2(out, value >>> 16);
+		u2(out, value);
+	}
+
+	/**
+	 * Constant pool that adds every distinct constant once.
+	 */
+	private static final class ConstantPool {
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		private final DataOutputStream out = new DataOutputStream(bytes);
+		private final Map<String, Integer> indexes = new HashMap<>();
+		private int count = 1;
+
+		int utf8(String value) {
+			return add(1, value, 1, () -> out.writeUTF(value));
+		}
+
+		int integer(int value) {
+			return add(3, String.valueOf(value), 1, () -> out.writeInt(value));
+		}
+
+		int longValue(long value) {
+			return add(5, String.valueOf(value), 2, () -> out.writeLong(value));
+		}
+
+		int string(String value) {
+			int utf8 = utf8(value);
+			return add(8, value, 1, () -> out.writeShort(utf8));
+		}
+
+		int classRef(String name) {
+			int utf8 = utf8(name);
+			return add(7, name, 1, () -> out.writeShort(utf8));
+		}
+
+		int nameAndType(String name, String descriptor) {
+			int nameIndex = utf8(name);
+			int descriptorIndex = utf8(descriptor);
+			return add(12, name + ":" + descriptor, 1, () -> {
+				out.writeShort(nameIndex);
+				out.writeShort(descriptorIndex);
+			});
+		}
+
+		int fieldRef(String owner, String name, String descriptor) {
+			return memberRef(9, owner, name, descriptor);
+		}
+
+		int methodRef(String owner, String name, String descriptor) {
+			return memberRef(10, owner, name, descriptor);
+		}
+
+		private int memberRef(int tag, String owner, String name, String descriptor) {
+			int classIndex = classRef(owner);
+			int nameAndType = nameAndType(name, descriptor);
+			return add(tag, owner + "." + name + ":" + descriptor, 1, () -> {
+				out.writeShort(classIndex);
+				out.writeShort(nameAndType);
+			});
+		}
+
+		/**
+		 * @param slots 2 for long and double constants
+		 * @return index of the constant, the existing one when the same constant was added before
+		 */
+		private int add(int tag, String value, int slots, Body body) {
+			String key = tag + ":" + value;
+			Integer index = indexes.get(key);
+			if (index != null) {
+				return index;
+			}
+			if (count + slots > MAX_CONSTANT_POOL_COUNT) {
+				throw new IllegalStateException("Constant pool is full");
+			}
+			try {
+				out.writeByte(tag);
+				body.write();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			indexes.put(key, count);
+			count += slots;
+			return count - slots;
+		}
+
+		@FunctionalInterface
+		private interface Body {
+			void write() throws IOException;
+		}
+	}
+
+	/**
+	 * Public class extending {@code java/lang/Object} with static methods and class attributes.
+	 */
+	private static final class ClassWriter {
+		private final ConstantPool pool;
+		private final int thisClass;
+		private final int superClass;
+		private final ByteArrayOutputStream methods = new ByteArrayOutputStream();
+		private final ByteArrayOutputStream attributes = new ByteArrayOutputStream();
+		private int methodsCount;
+		private int attributesCount;
+
+		ClassWriter(ConstantPool pool, String name) {
+			this.pool = pool;
+			thisClass = pool.classRef("generated/" + name);
+			superClass = pool.classRef("java/lang/Object");
+		}
+
+		/**
+		 * @param stackMapTable content of the {@code StackMapTable} attribute of the code, null for none
+		 */
+		void method(String name, byte[] code, byte[] stackMapTable) {
+			int codeName = pool.utf8("Code");
+			int tableName = stackMapTable == null ? 0 : pool.utf8("StackMapTable");
+			u2(methods, ACC_PUBLIC_STATIC);
+			u2(methods, pool.utf8(name));
+			u2(methods, pool.utf8("()V"));
+			u2(methods, 1);
+			u2(methods, codeName);
+			int tableLength = stackMapTable == null ? 0 : 6 + stackMapTable.length;
+			u4(methods, 2 + 2 + 4 + code.length + 2 + 2 + tableLength);
+			u2(methods, 2);
+			u2(methods, 1);
+			u4(methods, code.length);
+			methods.writeBytes(code);
+			u2(methods, 0);
+			u2(methods, stackMapTable == null ? 0 : 1);
+			if (stackMapTable != null) {
+				u2(methods, tableName);
+				u4(methods, stackMapTable.length);
+				methods.writeBytes(stackMapTable);
+			}
+			methodsCount++;
+		}
+
+		void classAttribute(int name, byte[] content) {
+			u2(attributes, name);
+			u4(attributes, content.length);
+			attributes.writeBytes(content);
+			attributesCount++;
+		}
+
+		byte[] toByteArray() {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			u4(out, 0xCAFEBABE);
+			u2(out, 0);
+			u2(out, MAJOR_VERSION);
+			u2(out, pool.count);
+			out.writeBytes(pool.bytes.toByteArray());
+			u2(out, 0x0021);
+			u2(out, thisClass);
+			u2(out, superClass);
+			u2(out, 0);
+			u2(out, 0);
+			u2(out, methodsCount);
+			out.writeBytes(methods.toByteArray());
+			u2(out, attributesCount);
+			out.writeBytes(attributes.toByteArray());
+			return out.toByteArray();
+		}
+	}
+}
@@ -0,0 +1,174 @@
+package com.example.jcparser;
+
+import com.example.jcparser.attribute.instruction.Bytecode;
+import com.example.jcparser.constantpool.ConstantPoolEntry;
+import com.example.jcparser.constantpool.LazyConstantPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses and formats the test class corpus: {@code TestClass} alone or every file of {@code class_file_list.csv}.
+ * One operation handles every class of the corpus once. The output of the formatting benchmarks is discarded.
+ * Run with {@code gradle jmh --args="ParserBenchmark -prof gc"} to see the allocation rate as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+	private static final String TEST_CLASS = "classes/com/example/jcparser/test/TestClass.class";
+	private static final int CONSTANT_POOL_COUNT_OFFSET = 8;
+	private final Options options = new Options();
+	private final PrintStream nullStream = new PrintStream(OutputStream.nullOutputStream());
+	@Param({"TestClass", "list"})
+	private String corpus;
+	private byte[][] classFiles;
+	private ClassFile[] models;
+
+	@Setup
+	public void setup() throws IOException {
+		List<String> names = new ArrayList<>();
+		if (corpus.equals("TestClass")) {
+			names.add(TEST_CLASS);
+		} else {
+			for (String line : new String(read("class_file_list.csv"), StandardCharsets.UTF_8).split("\\R")) {
+				if (!line.isBlank() && !line.startsWith("#")) {
+					names.add(line.strip());
+				}
+			}
+		}
+		classFiles = new byte[names.size()][];
+		models = new ClassFile[names.size()];
+		for (int i = 0; i < classFiles.length; i++) {
+			classFiles[i] = read(names.get(i));
+			models[i] = Parser.parse(classFiles[i]);
+		}
+	}
+
+	private static byte[] read(String resource) throws IOException {
+		try (InputStream is = Objects.requireNonNull(
+				ParserBenchmark.class.getClassLoader().getResourceAsStream(resource), resource)) {
+			return is.readAllBytes();
+		}
+	}
+
+	/**
+	 * Decodes every constant pool entry the way the parser reads the eager constant pool.
+	 */
+	@Benchmark
+	public void constantPool(Blackhole blackhole) {
+		for (byte[] classFile : classFiles) {
+			ByteBuffer buffer = ByteBuffer.wrap(classFile);
+			int count = Short.toUnsignedInt(buffer.getShort(CONSTANT_POOL_COUNT_OFFSET));
+			int offset = CONSTANT_POOL_COUNT_OFFSET + Short.BYTES;
+			for (int i = 1; i < count; i++) {
+				ConstantPoolEntry entry = LazyConstantPool.createEntry(buffer, offset, i);
+				offset += LazyConstantPool.getEntrySize(buffer, offset);
+				if (entry.getConstantTag().isTwoEntriesTakeUp()) {
+					i++;
+				}
+				blackhole.consume(entry);
+			}
+		}
+	}
+
+	@Benchmark
+	public void lazyConstantPool(Blackhole blackhole) {
+		for (byte[] classFile : classFiles) {
+			ByteBuffer buffer = ByteBuffer.wrap(classFile);
+			int count = Short.toUnsignedInt(buffer.getShort(CONSTANT_POOL_COUNT_OFFSET));
+			blackhole.consume(new LazyConstantPool(buffer.position(CONSTANT_POOL_COUNT_OFFSET + Short.BYTES), count));
+		}
+	}
+
+	/**
+	 * Decodes only the {@code Code} attributes and visits every instruction, the other attributes are skipped.
+	 */
+	@Benchmark
+	public void codeAttributes(Blackhole blackhole) {
+		ClassFileVisitor visitor = new ClassFileVisitor() {
+			@Override
+			public boolean acceptAttribute(String name) {
+				return name.equals("Code");
+			}
+
+			@Override
+			public void visitInstruction(Bytecode bytecode, int index) {
+				blackhole.consume(bytecode.getOpcode(index));
+			}
+		};
+		Parser parser = new Parser(visitor);
+		for (byte[] classFile : classFiles) {
+			parser.process(ByteBuffer.wrap(classFile));
+		}
+	}
+
+	@Benchmark
+	public void parse(Blackhole blackhole) {
+		for (byte[] classFile : classFiles) {
+			blackhole.consume(Parser.parse(classFile));
+		}
+	}
+
+	/**
+	 * Renders the constant pools with {@link com.example.jcparser.constantpool.ConstantFormater}.
+	 */
+	@Benchmark
+	public void formatConstantPool() {
+		Print print = new Print(options, nullStream);
+		for (ClassFile model : models) {
+			print.getConstantFormater().setConstantPool(model.constantPool());
+			print.constantPool(model.constantPool());
+		}
+		print.flush();
+	}
+
+	@Benchmark
+	public void format() {
+		for (ClassFile model : models) {
+			new Print(options, nullStream).print(model);
+		}
+	}
+
+	@Benchmark
+	public void formatJson() {
+		for (ClassFile model : models) {
+			model.accept(new JsonPrint(options, nullStream, null));
+		}
+	}
+
+	/**
+	 * Parses and prints like the dump of a single class file.
+	 */
+	@Benchmark
+	public void dump() {
+		for (byte[] classFile : classFiles) {
+			Print print = new Print(options, nullStream);
+			new Parser(print).process(ByteBuffer.wrap(classFile));
+			print.flush();
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package com.example.jcparser;
+
+import com.example.jcparser.ClassFileGenerator.Shape;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses and prints one generated class per shape and size. The time of a linear path grows with the size,
+ * compare the scores of the sizes to find the quadratic ones:
+ * {@code gradle jmh --args="Scaling -p shape=CODE -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScalingBenchmark {
+	private final Options options = new Options();
+	private final PrintStream nullStream = new PrintStream(OutputStream.nullOutputStream());
+	@Param
+	private Shape shape;
+	@Param({"1000", "8000", "65535"})
+	private int size;
+	private byte[] classFile;
+
+	@Setup
+	public void setup() {
+		classFile = shape.generate(size);
+	}
+
+	@Benchmark
+	public ClassFile parse() {
+		return Parser.parse(classFile);
+	}
+
+	@Benchmark
+	public void dump() {
+		Print print = new Print(options, nullStream);
+		new Parser(print).process(ByteBuffer.wrap(classFile));
+		print.flush();
+	}
+}
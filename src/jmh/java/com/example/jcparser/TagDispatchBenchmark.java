@@ -0,0 +1,84 @@
+package com.example.jcparser;
+
+import com.example.jcparser.attribute.annotation.RuntimeTypeAnnotationsAttribute.TypeTargetInfo;
+import com.example.jcparser.attribute.annotation.TagValueItem;
+import com.example.jcparser.attribute.stackmapframe.FrameType;
+import com.example.jcparser.attribute.stackmapframe.TypeInfo;
+import com.example.jcparser.constantpool.ConstantTag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Decodes every valid tag of each tag enum once per invocation.
+ * {@code streamLookup} repeats the former {@code Arrays.stream(values())} search of {@link ConstantTag} as a baseline.
+ * Run with {@code gradle jmh --args="TagDispatch -prof gc"} to see the allocation rate of each lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TagDispatchBenchmark {
+	private final int[] constantTags = Arrays.stream(ConstantTag.values()).mapToInt(ConstantTag::getTag).toArray();
+	private final int[] frameTypes = IntStream.rangeClosed(0, 255).filter(tag -> tag < 128 || tag > 246).toArray();
+	private final int[] typeInfoTags = IntStream.rangeClosed(0, 8).toArray();
+	private final int[] tagValues = "BCDFIJSZsec@[".chars().toArray();
+	private final int[] targetTypes = {0x00, 0x01, 0x10, 0x11, 0x12, 0x13, 0x14, 0x15, 0x16, 0x17,
+			0x40, 0x41, 0x42, 0x43, 0x44, 0x45, 0x46, 0x47, 0x48, 0x49, 0x4A, 0x4B};
+
+	@Benchmark
+	public void constantTag(Blackhole blackhole) {
+		for (int tag : constantTags) {
+			blackhole.consume(ConstantTag.getConstant(tag));
+		}
+	}
+
+	@Benchmark
+	public void streamLookup(Blackhole blackhole) {
+		for (int tag : constantTags) {
+			blackhole.consume(Arrays.stream(ConstantTag.values()).filter(v -> v.getTag() == tag).findFirst()
+					.orElseThrow());
+		}
+	}
+
+	@Benchmark
+	public void frameType(Blackhole blackhole) {
+		for (int tag : frameTypes) {
+			blackhole.consume(FrameType.getType(tag));
+		}
+	}
+
+	@Benchmark
+	public void typeInfoType(Blackhole blackhole) {
+		for (int tag : typeInfoTags) {
+			blackhole.consume(TypeInfo.Type.getTagType(tag));
+		}
+	}
+
+	@Benchmark
+	public void tagValueItem(Blackhole blackhole) {
+		for (int tag : tagValues) {
+			blackhole.consume(TagValueItem.getTagValue(tag));
+		}
+	}
+
+	@Benchmark
+	public void typeTargetInfo(Blackhole blackhole) {
+		for (int tag : targetTypes) {
+			blackhole.consume(TypeTargetInfo.getType(tag));
+		}
+	}
+}
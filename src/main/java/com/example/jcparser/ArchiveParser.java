@@ -0,0 +1,122 @@
+package com.example.jcparser;
+
+import com.example.jcparser.BatchParser.Source;
+import com.example.jcparser.index.AnnotationScanner;
+import com.example.jcparser.index.ConstantSearch;
+import com.example.jcparser.index.SymbolIndexWriter;
+import com.example.jcparser.snapshot.SnapshotWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.function.Function;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Parses every <i>.class</i> entry of a jar/zip archive, or of all archives and class files in a directory,
+ * without extracting them to disk. Entries are read into a read buffer reused by each worker.
+ */
+public class ArchiveParser {
+	private static final String CLASS_SUFFIX = ".class";
+	private final Options options;
+	private final SnapshotWriter snapshotWriter;
+	private final SymbolIndexWriter symbolIndexWriter;
+	private final AnnotationScanner annotationScanner;
+	private final ConstantSearch constantSearch;
+	private final BatchParser batchParser;
+
+	public ArchiveParser(Options options) throws IOException {
+		this.options = options;
+		this.snapshotWriter = options.getSnapshot() == null ? null : new SnapshotWriter();
+		this.symbolIndexWriter = options.getSymbolIndex() == null ? null : new SymbolIndexWriter();
+		this.annotationScanner = options.getAnnotationIndex() == null ? null : new AnnotationScanner();
+		this.constantSearch = options.getSearch() == null ? null : new ConstantSearch(options.getSearch());
+		this.batchParser = new BatchParser(options, System.out, getCollector());
+	}
+
+	private Function<String, ClassFileVisitor> getCollector() {
+		if (snapshotWriter != null) {
+			return snapshotWriter::newClass;
+		}
+		if (symbolIndexWriter != null) {
+			return symbolIndexWriter::newClass;
+		}
+		if (annotationScanner != null) {
+			return annotationScanner::newClass;
+		}
+		if (constantSearch != null) {
+			return constantSearch::newClass;
+		}
+		return null;
+	}
+
+	public static boolean isArchive(File file) {
+		String name = file.getName().toLowerCase();
+		return file.isFile() && (name.endsWith(".jar") || name.endsWith(".zip"));
+	}
+
+	public void process(File file) throws IOException {
+		List<Source> classFiles = new ArrayList<>();
+		try {
+			process(file, classFiles);
+			batchParser.process(classFiles);
+		} finally {
+			batchParser.close();
+		}
+		if (snapshotWriter != null) {
+			snapshotWriter.write(options.getSnapshot());
+		}
+		if (symbolIndexWriter != null) {
+			symbolIndexWriter.write(options.getSymbolIndex());
+		}
+		if (annotationScanner != null) {
+			annotationScanner.write(options.getAnnotationIndex());
+		}
+		if (constantSearch != null) {
+			constantSearch.print(System.out);
+		}
+	}
+
+	private void process(File file, List<Source> classFiles) throws IOException {
+		if (file.isDirectory()) {
+			File[] files = file.listFiles();
+			if (files == null) {
+				return;
+			}
+			Arrays.sort(files);
+			for (File child : files) {
+				process(child, classFiles);
+			}
+		} else if (isArchive(file)) {
+			batchParser.process(classFiles);
+			classFiles.clear();
+			processArchive(file);
+		} else if (file.getName().endsWith(CLASS_SUFFIX)) {
+			classFiles.add(new Source(file.getPath(), readBuffer -> readBuffer.read(file.toPath())));
+		}
+	}
+
+	private void processArchive(File archive) throws IOException {
+		try (ZipFile zipFile = new ZipFile(archive)) {
+			List<Source> sources = new ArrayList<>();
+			Enumeration<? extends ZipEntry> entries = zipFile.entries();
+			while (entries.hasMoreElements()) {
+				ZipEntry entry = entries.nextElement();
+				if (entry.isDirectory() || !entry.getName().endsWith(CLASS_SUFFIX)) {
+					continue;
+				}
+				sources.add(new Source(archive.getPath() + "!/" + entry.getName(), readBuffer -> {
+					try (InputStream is = zipFile.getInputStream(entry)) {
+						return readBuffer.read(is, entry.getSize());
+					}
+				}));
+			}
+			batchParser.process(sources);
+		}
+	}
+}
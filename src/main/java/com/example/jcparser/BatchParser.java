@@ -0,0 +1,221 @@
+package com.example.jcparser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Function;
+
+import static com.example.jcparser.ConsoleColors.GREEN;
+import static com.example.jcparser.ConsoleColors.addColor;
+
+/**
+ * Parses many class files on a work-stealing pool. Every file gets its own {@link Print} writing into a private
+ * buffer, and the buffers are written to the output in the input order. A file takes a {@link ReadBuffer} and
+ * a {@link Parser} from a pool and returns them when it is parsed, so there are never more of them than files
+ * in flight, even with a thread per file.
+ * With a cache directory in the options the output of a class file parsed before is taken from the {@link ParseCache}.
+ */
+public class BatchParser implements AutoCloseable {
+	private static final int TASKS_PER_THREAD = 4;
+	private final Options options;
+	private final PrintStream out;
+	private final Function<String, ClassFileVisitor> collector;
+	private final ParseCache cache;
+	private final BlockingQueue<Worker> workers = new LinkedBlockingQueue<>();
+	private ExecutorService executor;
+
+	public BatchParser(Options options, PrintStream out) throws IOException {
+		this(options, out, null);
+	}
+
+	/**
+	 * @param collector visitor of a source name that records the class file instead of printing it,
+	 *                  like {@link com.example.jcparser.snapshot.SnapshotWriter#newClass(String)}, null to print
+	 */
+	public BatchParser(Options options, PrintStream out, Function<String, ClassFileVisitor> collector)
+			throws IOException {
+		this.options = options;
+		this.out = out;
+		this.collector = collector;
+		this.cache = options.getCacheDirectory() == null || collector != null
+				? null : new ParseCache(options.getCacheDirectory(), options.getCacheSize());
+	}
+
+	public void process(List<Source> sources) {
+		if (options.getConcurrency() > 0) {
+			process(sources, getExecutor(), options.getConcurrency());
+		} else if (options.getThreads() > 1) {
+			process(sources, getExecutor(), options.getThreads() * TASKS_PER_THREAD);
+		} else {
+			for (Source source : sources) {
+				write(parse(source));
+			}
+		}
+	}
+
+	/**
+	 * Keeps at most {@code window} files in flight: a new file is submitted only after the oldest one is written.
+	 */
+	private void process(List<Source> sources, ExecutorService executor, int window) {
+		Deque<Future<Result>> tasks = new ArrayDeque<>(window);
+		try {
+			int next = 0;
+			while (next < sources.size() || !tasks.isEmpty()) {
+				while (next < sources.size() && tasks.size() < window) {
+					Source source = sources.get(next++);
+					tasks.add(executor.submit(() -> parse(source)));
+				}
+				write(tasks.poll().get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		} finally {
+			tasks.forEach(task -> task.cancel(true));
+		}
+	}
+
+	/**
+	 * One executor for all archives of a run.
+	 */
+	private ExecutorService getExecutor() {
+		if (executor == null) {
+			executor = options.getConcurrency() > 0 ? newThreadPerTaskExecutor() : new ForkJoinPool(options.getThreads());
+		}
+		return executor;
+	}
+
+	/**
+	 * Stops the threads of the executor at the end of a run, the next {@link #process(List)} starts a new one.
+	 */
+	@Override
+	public void close() {
+		if (executor != null) {
+			executor.shutdownNow();
+			executor = null;
+		}
+	}
+
+	/**
+	 * One virtual thread per file when the runtime has them (Java 21+), otherwise one pooled platform thread per file.
+	 */
+	private static ExecutorService newThreadPerTaskExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool();
+		}
+	}
+
+	/**
+	 * Takes an idle worker or creates one when all are busy, at most one per file in flight.
+	 */
+	private Result parse(Source source) {
+		Worker worker = workers.poll();
+		if (worker == null) {
+			worker = new Worker(new ReadBuffer(), new Parser(null));
+		}
+		try {
+			return parse(source, worker);
+		} finally {
+			workers.offer(worker);
+		}
+	}
+
+	private Result parse(Source source, Worker worker) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (PrintStream ps = new PrintStream(bytes)) {
+			if (collector != null) {
+				worker.parser().reset(collector.apply(source.name())).process(source.reader().read(worker.readBuffer()));
+				return new Result(source, bytes, null);
+			}
+			if (!options.isJson()) {
+				ps.println(addColor(GREEN, source.name()));
+				ps.flush();
+			}
+			ByteBuffer buffer = source.reader().read(worker.readBuffer());
+			String key = cache == null ? null : ParseCache.key(buffer, getCacheVariant(source));
+			byte[] cached = key == null ? null : cache.get(key);
+			if (cached != null) {
+				bytes.writeBytes(cached);
+				return new Result(source, bytes, null);
+			}
+			int start = bytes.size();
+			print(worker.parser(), buffer, ps, source);
+			if (key != null) {
+				byte[] output = bytes.toByteArray();
+				cache.put(key, Arrays.copyOfRange(output, start, output.length));
+			}
+		} catch (IOException | RuntimeException e) {
+			return new Result(source, new ByteArrayOutputStream(), e);
+		}
+		return new Result(source, bytes, null);
+	}
+
+	private void print(Parser parser, ByteBuffer buffer, PrintStream ps, Source source) {
+		if (options.isJson()) {
+			parser.reset(new JsonPrint(options, ps, source.name())).process(buffer);
+			return;
+		}
+		Print print = new Print(options, ps);
+		try {
+			parser.reset(print).process(buffer);
+		} finally {
+			print.flush();
+		}
+	}
+
+	/**
+	 * Everything but the class file bytes the cached output depends on.
+	 */
+	private String getCacheVariant(Source source) {
+		String attributes = options.getAttributes() == null ? "all" : new TreeSet<>(options.getAttributes()).toString();
+		return String.join(",", String.valueOf(options.needConstants()), String.valueOf(options.needRefs()),
+				attributes, options.isJson() ? "json:" + source.name() : "text");
+	}
+
+	private void write(Result result) {
+		try {
+			result.bytes().writeTo(out);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		if (result.error() != null) {
+			String message = result.error().getMessage();
+			System.err.printf("%s %s\n", result.source().name(), message != null ? message : result.error().toString());
+		}
+	}
+
+	@FunctionalInterface
+	public interface SourceReader {
+		ByteBuffer read(ReadBuffer readBuffer) throws IOException;
+	}
+
+	public record Source(String name, SourceReader reader) {
+	}
+
+	/**
+	 * @param bytes output of the class file, empty when it failed, a partial dump is dropped
+	 * @param error why the class file failed, like a {@link java.nio.BufferUnderflowException} without a message
+	 *              for a truncated file, null when it was parsed
+	 */
+	private record Worker(ReadBuffer readBuffer, Parser parser) {
+	}
+
+	private record Result(Source source, ByteArrayOutputStream bytes, Exception error) {
+	}
+}
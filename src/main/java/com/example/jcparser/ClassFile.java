@@ -0,0 +1,258 @@
+package com.example.jcparser;
+
+import com.example.jcparser.Parser.U2;
+import com.example.jcparser.Parser.U2Array;
+import com.example.jcparser.Parser.U4;
+import com.example.jcparser.attribute.Attribute;
+import com.example.jcparser.attribute.instruction.Bytecode;
+import com.example.jcparser.attribute.instruction.CodeAttribute;
+import com.example.jcparser.constantpool.ConstantPoolEntry;
+import com.example.jcparser.constantpool.ConstantPoolString;
+import com.example.jcparser.constantpool.ConstantPoolUtf8;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <a href="https://docs.oracle.com/javase/specs/jvms/se17/html/jvms-4.html#jvms-4.1">4.1. The ClassFile Structure</a>
+ * <p>
+ * Parsed class file returned by {@link Parser#parse(java.nio.ByteBuffer)}. Every value keeps its offset in the class
+ * file, so {@link #accept(ClassFileVisitor)} can render the class file later with {@link Print} or {@link JsonPrint}
+ * the same way as while parsing. The model is parsed from a private copy of the class file and its arrays are
+ * returned as copies, so it may be shared between threads.
+ *
+ * @param length       size of the class file in bytes
+ * @param constantPool index 0 and the second slot of long and double entries are null
+ */
+public record ClassFile(int length, U4 magic, U2 minorVersion, U2 majorVersion, U2 constantPoolCount,
+                        List<ConstantPoolEntry> constantPool, U2 accessFlags, U2 thisClass, U2 superClass,
+                        U2Array interfaces, U2 fieldsCount, List<Member> fields, U2 methodsCount,
+                        List<Member> methods, U2 attributesCount, List<Attribute> attributes) {
+
+	/**
+	 * @return internal name of the class, like {@code java/lang/String}
+	 */
+	public String getName() {
+		return getClassName(thisClass.getValue());
+	}
+
+	/**
+	 * @return internal name of the super class, null for {@code java/lang/Object} and modules
+	 */
+	public String getSuperName() {
+		return superClass.getValue() == 0 ? null : getClassName(superClass.getValue());
+	}
+
+	public List<String> getInterfaceNames() {
+		U2[] array = interfaces.array();
+		List<String> names = new ArrayList<>(array.length);
+		for (U2 u2 : array) {
+			names.add(getClassName(u2.getValue()));
+		}
+		return names;
+	}
+
+	private String getClassName(int index) {
+		return getUtf8(((ConstantPoolString) constantPool.get(index)).getStringIndex());
+	}
+
+	private String getUtf8(int index) {
+		return ((ConstantPoolUtf8) constantPool.get(index)).getValue();
+	}
+
+	/**
+	 * Calls the visitor like {@link Parser} does while it reads the class file. Attributes rejected by
+	 * {@link ClassFileVisitor#acceptAttribute(String)} are reported as skipped, except the ones nested
+	 * in {@code Record} components.
+	 */
+	public void accept(ClassFileVisitor visitor) {
+		visitor.visitStart(length);
+		visitor.visitHeader(magic, minorVersion, majorVersion);
+		visitor.visitConstantPoolCount(constantPoolCount);
+		for (ConstantPoolEntry entry : constantPool) {
+			if (entry != null) {
+				visitor.visitConstant(entry);
+			}
+		}
+		visitor.visitConstantPool(constantPool);
+		visitor.visitClass(accessFlags, thisClass, superClass);
+		visitor.visitInterfaces(interfaces);
+		visitor.visitMembersCount(AccessFlag.Type.FIELD, fieldsCount);
+		for (Member field : fields) {
+			visitor.visitField(field.accessFlags(), field.nameIndex(), field.descriptorIndex(), field.attributesCount());
+			acceptAttributes(visitor, field.attributes());
+		}
+		visitor.visitMembersCount(AccessFlag.Type.METHOD, methodsCount);
+		for (Member method : methods) {
+			visitor.visitMethod(method.accessFlags(), method.nameIndex(), method.descriptorIndex(),
+					method.attributesCount());
+			acceptAttributes(visitor, method.attributes());
+		}
+		visitor.visitAttributesCount(attributesCount);
+		acceptAttributes(visitor, attributes);
+		visitor.visitEnd();
+	}
+
+	private void acceptAttributes(ClassFileVisitor visitor, List<Attribute> attributes) {
+		filterAttributes(visitor, attributes).forEach(visitor::visitAttribute);
+	}
+
+	private List<Attribute> filterAttributes(ClassFileVisitor visitor, List<Attribute> attributes) {
+		List<Attribute> accepted = new ArrayList<>(attributes.size());
+		for (Attribute attribute : attributes) {
+			String name = getUtf8(attribute.getNameIndex().getValue());
+			if (!visitor.acceptAttribute(name)) {
+				visitor.visitSkippedAttribute(name, attribute.getNameIndex().getOffset(),
+						U2.BYTES + U4.BYTES + attribute.getLength().getValue());
+				continue;
+			}
+			if (attribute instanceof CodeAttribute code) {
+				Bytecode bytecode = code.getBytecode();
+				for (int i = 0; i < bytecode.size(); i++) {
+					visitor.visitInstruction(bytecode, i);
+				}
+				List<Attribute> nested = filterAttributes(visitor, code.getAttributes());
+				if (nested.size() != code.getAttributes().size()) {
+					attribute = new CodeAttribute(code.getNameIndex(), code.getLength(), code.getMaxStack(),
+							code.getMaxLocals(), code.getCodeLength(), bytecode, code.getExceptionTableLength(),
+							code.getExceptions(), code.getNumberOf(), List.copyOf(nested));
+				}
+			}
+			accepted.add(attribute);
+		}
+		return accepted;
+	}
+
+	/**
+	 * <a href="https://docs.oracle.com/javase/specs/jvms/se17/html/jvms-4.html#jvms-4.5">4.5. Fields</a>
+	 * and <a href="https://docs.oracle.com/javase/specs/jvms/se17/html/jvms-4.html#jvms-4.6">4.6. Methods</a>
+	 */
+	public record Member(U2 accessFlags, U2 nameIndex, U2 descriptorIndex, U2 attributesCount,
+	                     List<Attribute> attributes) {
+
+		public String getName() {
+			return ((ConstantPoolUtf8) nameIndex.getCpe()).getValue();
+		}
+
+		public String getDescriptor() {
+			return ((ConstantPoolUtf8) descriptorIndex.getCpe()).getValue();
+		}
+
+		/**
+		 * @return the {@code Code} attribute of a method, null for fields, abstract and native methods
+		 */
+		public CodeAttribute getCode() {
+			return attributes.stream().filter(CodeAttribute.class::isInstance).map(CodeAttribute.class::cast)
+					.findFirst().orElse(null);
+		}
+	}
+
+	/**
+	 * Visitor that collects the parsed values into a {@link ClassFile}.
+	 */
+	static class Builder implements ClassFileVisitor {
+		private final List<Member> fields = new ArrayList<>();
+		private final List<Member> methods = new ArrayList<>();
+		private final List<Attribute> classAttributes = new ArrayList<>();
+		private List<Attribute> attributes = classAttributes;
+		private List<ConstantPoolEntry> constantPool = List.of();
+		private int length;
+		private U4 magic;
+		private U2 minorVersion;
+		private U2 majorVersion;
+		private U2 constantPoolCount;
+		private U2 accessFlags;
+		private U2 thisClass;
+		private U2 superClass;
+		private U2Array interfaces;
+		private U2 fieldsCount;
+		private U2 methodsCount;
+		private U2 attributesCount;
+		private ClassFile classFile;
+
+		@Override
+		public void visitStart(long length) {
+			this.length = (int) length;
+		}
+
+		@Override
+		public void visitHeader(U4 magic, U2 minorVersion, U2 majorVersion) {
+			this.magic = magic;
+			this.minorVersion = minorVersion;
+			this.majorVersion = majorVersion;
+		}
+
+		@Override
+		public void visitConstantPoolCount(U2 count) {
+			constantPoolCount = count;
+		}
+
+		@Override
+		public void visitConstantPool(List<ConstantPoolEntry> constantPool) {
+			this.constantPool = Collections.unmodifiableList(new ArrayList<>(constantPool));
+		}
+
+		@Override
+		public void visitClass(U2 accessFlags, U2 thisClass, U2 superClass) {
+			this.accessFlags = accessFlags;
+			this.thisClass = thisClass;
+			this.superClass = superClass;
+		}
+
+		@Override
+		public void visitInterfaces(U2Array interfaces) {
+			this.interfaces = interfaces;
+		}
+
+		@Override
+		public void visitMembersCount(AccessFlag.Type type, U2 count) {
+			if (type == AccessFlag.Type.FIELD) {
+				fieldsCount = count;
+			} else {
+				methodsCount = count;
+			}
+		}
+
+		@Override
+		public void visitField(U2 accessFlags, U2 nameIndex, U2 descriptorIndex, U2 attributesCount) {
+			fields.add(member(accessFlags, nameIndex, descriptorIndex, attributesCount));
+		}
+
+		@Override
+		public void visitMethod(U2 accessFlags, U2 nameIndex, U2 descriptorIndex, U2 attributesCount) {
+			methods.add(member(accessFlags, nameIndex, descriptorIndex, attributesCount));
+		}
+
+		/**
+		 * The member is completed by the attributes visited after it.
+		 */
+		private Member member(U2 accessFlags, U2 nameIndex, U2 descriptorIndex, U2 attributesCount) {
+			attributes = new ArrayList<>(attributesCount.getValue());
+			return new Member(accessFlags, nameIndex, descriptorIndex, attributesCount,
+					Collections.unmodifiableList(attributes));
+		}
+
+		@Override
+		public void visitAttributesCount(U2 count) {
+			attributesCount = count;
+			attributes = classAttributes;
+		}
+
+		@Override
+		public void visitAttribute(Attribute attribute) {
+			attributes.add(attribute);
+		}
+
+		@Override
+		public void visitEnd() {
+			classFile = new ClassFile(length, magic, minorVersion, majorVersion, constantPoolCount, constantPool,
+					accessFlags, thisClass, superClass, interfaces, fieldsCount, List.copyOf(fields), methodsCount,
+					List.copyOf(methods), attributesCount, List.copyOf(classAttributes));
+		}
+
+		ClassFile getClassFile() {
+			return classFile;
+		}
+	}
+}
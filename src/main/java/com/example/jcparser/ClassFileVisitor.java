@@ -0,0 +1,107 @@
+package com.example.jcparser;
+
+import com.example.jcparser.Parser.U2;
+import com.example.jcparser.Parser.U2Array;
+import com.example.jcparser.Parser.U4;
+import com.example.jcparser.attribute.Attribute;
+import com.example.jcparser.attribute.instruction.Bytecode;
+import com.example.jcparser.constantpool.ConstantPoolEntry;
+
+import java.util.List;
+
+/**
+ * Callbacks driven by {@link Parser} while it reads a class file, in file order.
+ * Every method does nothing by default, so a visitor overrides only what it needs.
+ * {@link Print} is the visitor that dumps the whole file.
+ */
+public interface ClassFileVisitor {
+
+	/**
+	 * @param length size of the class file in bytes
+	 */
+	default void visitStart(long length) {
+	}
+
+	default void visitHeader(U4 magic, U2 minorVersion, U2 majorVersion) {
+	}
+
+	default void visitConstantPoolCount(U2 count) {
+	}
+
+	/**
+	 * With a lazy constant pool only the offsets of the entries are recorded while the class file is read,
+	 * and an entry is decoded the first time it is requested. {@link #visitConstant} is not called then.
+	 */
+	default boolean lazyConstantPool() {
+		return false;
+	}
+
+	/**
+	 * Called for every entry as soon as it is read. Entries may refer to entries that are not read yet.
+	 */
+	default void visitConstant(ConstantPoolEntry entry) {
+	}
+
+	/**
+	 * Called once the whole constant pool is read. Index 0 and the second slot of long and double entries are null.
+	 */
+	default void visitConstantPool(List<ConstantPoolEntry> constantPool) {
+	}
+
+	default void visitClass(U2 accessFlags, U2 thisClass, U2 superClass) {
+	}
+
+	default void visitInterfaces(U2Array interfaces) {
+	}
+
+	/**
+	 * @param type {@link AccessFlag.Type#FIELD} or {@link AccessFlag.Type#METHOD}
+	 */
+	default void visitMembersCount(AccessFlag.Type type, U2 count) {
+	}
+
+	default void visitField(U2 accessFlags, U2 nameIndex, U2 descriptorIndex, U2 attributesCount) {
+	}
+
+	default void visitMethod(U2 accessFlags, U2 nameIndex, U2 descriptorIndex, U2 attributesCount) {
+	}
+
+	/**
+	 * Count of the class attributes, the ones that follow the methods.
+	 */
+	default void visitAttributesCount(U2 count) {
+	}
+
+	/**
+	 * Attributes with a name rejected here are skipped by their length and never decoded.
+	 */
+	default boolean acceptAttribute(String name) {
+		return true;
+	}
+
+	/**
+	 * Called instead of decoding an attribute rejected by {@link #acceptAttribute(String)}.
+	 *
+	 * @param offset offset of the attribute name index
+	 * @param length size of the whole attribute, name index and length included
+	 */
+	default void visitSkippedAttribute(String name, int offset, int length) {
+	}
+
+	/**
+	 * Called for every attribute of the last visited class, field or method.
+	 * Nested attributes (of {@code Code} or {@code Record}) are reachable from their parent.
+	 */
+	default void visitAttribute(Attribute attribute) {
+	}
+
+	/**
+	 * Called for every instruction while a {@code Code} attribute is decoded.
+	 * Opcode and operands are read from {@code bytecode} by the instruction index, nothing is allocated per call.
+	 */
+	default void visitInstruction(Bytecode bytecode, int index) {
+	}
+
+	default void visitEnd() {
+	}
+}
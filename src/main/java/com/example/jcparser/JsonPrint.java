@@ -0,0 +1,243 @@
+package com.example.jcparser;
+
+import com.example.jcparser.Parser.U2;
+import com.example.jcparser.Parser.U2Array;
+import com.example.jcparser.Parser.U4;
+import com.example.jcparser.attribute.Attribute;
+import com.example.jcparser.attribute.instruction.Bytecode;
+import com.example.jcparser.attribute.instruction.CodeAttribute;
+import com.example.jcparser.attribute.instruction.InstructionSet;
+import com.example.jcparser.constantpool.*;
+
+import java.io.PrintStream;
+import java.util.List;
+
+import static com.example.jcparser.AccessFlag.getAccessFlags;
+
+/**
+ * Writes every class file as one JSON object on its own line (JSON Lines), with the constant pool,
+ * fields, methods, attributes and the instructions of the {@code Code} attributes.
+ * The object is streamed while the class file is read, nothing is collected first.
+ */
+public class JsonPrint implements ClassFileVisitor {
+	private final Options options;
+	private final String source;
+	private final OutputSink out;
+	private final JsonWriter json;
+	private List<ConstantPoolEntry> constantPool = List.of();
+	private boolean membersOpen;
+	private boolean memberOpen;
+	private long skippedBytes;
+
+	/**
+	 * @param source name of the class file written to the {@code source} field, null to omit it
+	 */
+	public JsonPrint(Options options, PrintStream out, String source) {
+		this.options = options;
+		this.source = source;
+		this.out = new OutputSink(out);
+		this.json = new JsonWriter(this.out);
+	}
+
+	@Override
+	public void visitStart(long length) {
+		json.beginObject();
+		if (source != null) {
+			json.name("source").value(source);
+		}
+		json.name("length").value(length);
+	}
+
+	@Override
+	public void visitHeader(U4 magic, U2 minorVersion, U2 majorVersion) {
+		json.name("minorVersion").value(minorVersion.getValue());
+		json.name("majorVersion").value(majorVersion.getValue());
+	}
+
+	@Override
+	public boolean lazyConstantPool() {
+		return true;
+	}
+
+	@Override
+	public void visitConstantPool(List<ConstantPoolEntry> constantPool) {
+		this.constantPool = constantPool;
+		json.name("constantPool").beginArray();
+		for (int i = 1; i < constantPool.size(); i++) {
+			ConstantPoolEntry entry = constantPool.get(i);
+			if (entry != null) {
+				constant(entry);
+			}
+		}
+		json.endArray();
+	}
+
+	private void constant(ConstantPoolEntry entry) {
+		json.beginObject();
+		json.name("index").value(entry.getIdx());
+		json.name("offset").value(entry.getOffset());
+		json.name("tag").value(entry.getConstantTag().name());
+		if (entry instanceof ConstantPoolUtf8 utf8) {
+			json.name("value").value(utf8.getValue());
+		} else if (entry instanceof ConstantPoolInteger integer) {
+			json.name("value").value(integer.getValue());
+		} else if (entry instanceof ConstantPoolFloat floatEntry) {
+			json.name("value").value(floatEntry.getValue());
+		} else if (entry instanceof ConstantPoolLong longEntry) {
+			json.name("value").value(longEntry.getValue());
+		} else if (entry instanceof ConstantPoolDouble doubleEntry) {
+			json.name("value").value(doubleEntry.getValue());
+		} else if (entry instanceof ConstantPoolString string) {
+			json.name("nameIndex").value(string.getStringIndex());
+		} else if (entry instanceof ConstantPoolMethodRef ref) {
+			json.name("classIndex").value(ref.getClassIndex());
+			json.name("nameAndTypeIndex").value(ref.getNameAndTypeIndex());
+		} else if (entry instanceof ConstantPoolNameAndType nameAndType) {
+			json.name("nameIndex").value(nameAndType.getNameIndex());
+			json.name("descriptorIndex").value(nameAndType.getDescriptorIndex());
+		} else if (entry instanceof ConstantPoolDynamic dynamic) {
+			json.name("bootstrapMethodAttrIndex").value(dynamic.getBootstrapMethodAttrIndex());
+			json.name("nameAndTypeIndex").value(dynamic.getNameAndTypeIndex());
+		} else if (entry instanceof ConstantPoolMethodHandle methodHandle) {
+			json.name("referenceKind").value(methodHandle.getReferenceKind());
+			json.name("referenceIndex").value(methodHandle.getReferenceIndex());
+		}
+		json.endObject();
+	}
+
+	@Override
+	public void visitClass(U2 accessFlags, U2 thisClass, U2 superClass) {
+		accessFlags(accessFlags, AccessFlag.Type.CLASS);
+		json.name("thisClass").value(className(thisClass.getValue()));
+		json.name("superClass").value(className(superClass.getValue()));
+	}
+
+	@Override
+	public void visitInterfaces(U2Array interfaces) {
+		json.name("interfaces").beginArray();
+		for (U2 u2 : interfaces.array()) {
+			json.value(className(u2.getValue()));
+		}
+		json.endArray();
+	}
+
+	@Override
+	public void visitMembersCount(AccessFlag.Type type, U2 count) {
+		closeMembers();
+		json.name(type == AccessFlag.Type.FIELD ? "fields" : "methods").beginArray();
+		membersOpen = true;
+	}
+
+	@Override
+	public void visitField(U2 accessFlags, U2 nameIndex, U2 descriptorIndex, U2 attributesCount) {
+		member(AccessFlag.Type.FIELD, accessFlags, nameIndex, descriptorIndex);
+	}
+
+	@Override
+	public void visitMethod(U2 accessFlags, U2 nameIndex, U2 descriptorIndex, U2 attributesCount) {
+		member(AccessFlag.Type.METHOD, accessFlags, nameIndex, descriptorIndex);
+	}
+
+	private void member(AccessFlag.Type type, U2 accessFlags, U2 nameIndex, U2 descriptorIndex) {
+		closeMember();
+		json.beginObject();
+		json.name("offset").value(accessFlags.getOffset());
+		accessFlags(accessFlags, type);
+		json.name("name").value(utf8(nameIndex.getValue()));
+		json.name("descriptor").value(utf8(descriptorIndex.getValue()));
+		json.name("attributes").beginArray();
+		memberOpen = true;
+	}
+
+	private void closeMember() {
+		if (memberOpen) {
+			json.endArray().endObject();
+			memberOpen = false;
+		}
+	}
+
+	private void closeMembers() {
+		closeMember();
+		if (membersOpen) {
+			json.endArray();
+			membersOpen = false;
+		}
+	}
+
+	@Override
+	public void visitAttributesCount(U2 count) {
+		closeMembers();
+		json.name("attributes").beginArray();
+	}
+
+	@Override
+	public boolean acceptAttribute(String name) {
+		return options.needAttribute(name);
+	}
+
+	@Override
+	public void visitSkippedAttribute(String name, int offset, int length) {
+		skippedBytes += length;
+	}
+
+	@Override
+	public void visitAttribute(Attribute attribute) {
+		json.beginObject();
+		json.name("name").value(utf8(attribute.getNameIndex().getValue()));
+		json.name("offset").value(attribute.getNameIndex().getOffset());
+		json.name("length").value(attribute.getLength().getValue());
+		if (attribute instanceof CodeAttribute code) {
+			json.name("maxStack").value(code.getMaxStack().getValue());
+			json.name("maxLocals").value(code.getMaxLocals().getValue());
+			instructions(code.getBytecode());
+			json.name("attributes").beginArray();
+			code.getAttributes().forEach(this::visitAttribute);
+			json.endArray();
+		}
+		json.endObject();
+	}
+
+	private void instructions(Bytecode bytecode) {
+		json.name("instructions").beginArray();
+		for (int i = 0; i < bytecode.size(); i++) {
+			int opcode = bytecode.getOpcode(i);
+			json.beginObject();
+			json.name("offset").value(bytecode.getOffset(i));
+			json.name("opcode").value(opcode);
+			json.name("mnemonic").value(InstructionSet.getInstruction(opcode).getMnemonic());
+			json.name("operands").beginArray();
+			for (int j = 0; j < bytecode.getOperandsLength(i); j++) {
+				json.value(bytecode.getOperand(i, j));
+			}
+			json.endArray().endObject();
+		}
+		json.endArray();
+	}
+
+	@Override
+	public void visitEnd() {
+		json.endArray();
+		if (skippedBytes > 0) {
+			json.name("skippedBytes").value(skippedBytes);
+		}
+		json.endObject().endLine();
+		out.flush();
+	}
+
+	private void accessFlags(U2 accessFlags, AccessFlag.Type type) {
+		json.name("accessFlags").value(accessFlags.getValue());
+		json.name("modifiers").value(getAccessFlags(accessFlags.getValue(), type).trim());
+	}
+
+	private String utf8(int index) {
+		return constantPool.get(index) instanceof ConstantPoolUtf8 utf8 ? utf8.getValue() : null;
+	}
+
+	/**
+	 * @return the name of the CONSTANT_Class entry, null for index 0 (the super class of java.lang.Object)
+	 */
+	private String className(int index) {
+		return index != 0 && constantPool.get(index) instanceof ConstantPoolString classEntry
+				? utf8(classEntry.getStringIndex()) : null;
+	}
+}
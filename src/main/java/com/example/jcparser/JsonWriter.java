@@ -0,0 +1,141 @@
+package com.example.jcparser;
+
+/**
+ * Streaming JSON encoder over an {@link OutputSink}. Values are written as soon as they are given,
+ * the only state is whether the next value needs a comma before it.
+ */
+public class JsonWriter {
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+	private final OutputSink out;
+	private boolean comma;
+
+	public JsonWriter(OutputSink out) {
+		this.out = out;
+	}
+
+	public JsonWriter beginObject() {
+		separator();
+		out.append('{');
+		comma = false;
+		return this;
+	}
+
+	public JsonWriter endObject() {
+		out.append('}');
+		comma = true;
+		return this;
+	}
+
+	public JsonWriter beginArray() {
+		separator();
+		out.append('[');
+		comma = false;
+		return this;
+	}
+
+	public JsonWriter endArray() {
+		out.append(']');
+		comma = true;
+		return this;
+	}
+
+	public JsonWriter name(String name) {
+		separator();
+		string(name);
+		out.append(':');
+		comma = false;
+		return this;
+	}
+
+	public JsonWriter value(String value) {
+		separator();
+		if (value == null) {
+			out.append("null");
+		} else {
+			string(value);
+		}
+		comma = true;
+		return this;
+	}
+
+	public JsonWriter value(long value) {
+		separator();
+		out.decimal(value, 0);
+		comma = true;
+		return this;
+	}
+
+	/**
+	 * NaN and the infinities have no JSON number form and are written as strings.
+	 */
+	public JsonWriter value(double value) {
+		if (Double.isNaN(value) || Double.isInfinite(value)) {
+			return value(Double.toString(value));
+		}
+		separator();
+		out.append(Double.toString(value));
+		comma = true;
+		return this;
+	}
+
+	/**
+	 * Written by {@link Float#toString(float)}, not widened to a double with its binary digits.
+	 */
+	public JsonWriter value(float value) {
+		if (Float.isNaN(value) || Float.isInfinite(value)) {
+			return value(Float.toString(value));
+		}
+		separator();
+		out.append(Float.toString(value));
+		comma = true;
+		return this;
+	}
+
+	public JsonWriter value(boolean value) {
+		separator();
+		out.append(value ? "true" : "false");
+		comma = true;
+		return this;
+	}
+
+	/**
+	 * Ends the current JSON Lines record.
+	 */
+	public JsonWriter endLine() {
+		out.newLine();
+		comma = false;
+		return this;
+	}
+
+	private void separator() {
+		if (comma) {
+			out.append(',');
+		}
+	}
+
+	/**
+	 * Surrogates are escaped as well, a lone one left by modified UTF-8 stays valid JSON.
+	 */
+	private void string(String value) {
+		out.append('"');
+		int start = 0;
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c >= 0x20 && c != '"' && c != '\\' && !Character.isSurrogate(c)) {
+				continue;
+			}
+			out.append(value, start, i);
+			switch (c) {
+				case '"' -> out.append("\\\"");
+				case '\\' -> out.append("\\\\");
+				case '\n' -> out.append("\\n");
+				case '\r' -> out.append("\\r");
+				case '\t' -> out.append("\\t");
+				default -> out.append("\\u").append(HEX_DIGITS[c >> 12]).append(HEX_DIGITS[c >> 8 & 0xF])
+						.append(HEX_DIGITS[c >> 4 & 0xF]).append(HEX_DIGITS[c & 0xF]);
+			}
+			start = i + 1;
+		}
+		out.append(value, start, value.length()).append('"');
+	}
+}
@@ -0,0 +1,128 @@
+package com.example.jcparser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Thread-safe in-memory cache of parsed class models, bounded by the entry count and by the estimated retained
+ * bytes, the least recently used models are evicted first. A model is estimated to retain
+ * {@value #RETAINED_BYTES_PER_CLASS_BYTE} bytes per byte of its class file, the private heap copy of the class file
+ * the model is parsed from included: no model refers to a file mapping or to a buffer of the caller.
+ * Two threads missing the same class at once may both parse it, the later model replaces the earlier one.
+ *
+ * @param <T> the model, immutable as it is shared between callers
+ */
+public class ModelCache<T> {
+	public static final int RETAINED_BYTES_PER_CLASS_BYTE = 4;
+	private final int maxEntries;
+	private final long maxBytes;
+	private final Function<byte[], T> parser;
+	private final Map<String, Entry<T>> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long retainedBytes;
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	/**
+	 * @param parser builds the model of the class file, like {@link Parser#parseOwned(byte[])}, the array is a private
+	 *               copy the model may keep without a copy of its own
+	 */
+	public ModelCache(int maxEntries, long maxBytes, Function<byte[], T> parser) {
+		this.maxEntries = maxEntries;
+		this.maxBytes = maxBytes;
+		this.parser = parser;
+	}
+
+	/**
+	 * The file is read again only when its size or modification time changed.
+	 */
+	public T get(Path path) throws IOException {
+		BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+		String key = path.toAbsolutePath().normalize() + ":" + attributes.size() + ":"
+				+ attributes.lastModifiedTime().toMillis();
+		T model = lookup(key);
+		if (model != null) {
+			return model;
+		}
+		byte[] bytes = Files.readAllBytes(path);
+		return store(key, parser.apply(bytes), bytes.length);
+	}
+
+	/**
+	 * The class file is keyed by a hash of its bytes, so equal class files share the model.
+	 */
+	public T get(ByteBuffer classFile) {
+		String key = ParseCache.key(classFile, "");
+		T model = lookup(key);
+		if (model != null) {
+			return model;
+		}
+		byte[] bytes = new byte[classFile.remaining()];
+		classFile.duplicate().get(bytes);
+		return store(key, parser.apply(bytes), bytes.length);
+	}
+
+	private synchronized T lookup(String key) {
+		Entry<T> entry = entries.get(key);
+		if (entry == null) {
+			misses++;
+			return null;
+		}
+		hits++;
+		return entry.model();
+	}
+
+	private synchronized T store(String key, T model, long classFileBytes) {
+		Entry<T> previous = entries.put(key, new Entry<>(model, classFileBytes * RETAINED_BYTES_PER_CLASS_BYTE));
+		if (previous != null) {
+			retainedBytes -= previous.retainedBytes();
+		}
+		retainedBytes += classFileBytes * RETAINED_BYTES_PER_CLASS_BYTE;
+		Iterator<Entry<T>> iterator = entries.values().iterator();
+		while ((entries.size() > maxEntries || retainedBytes > maxBytes) && iterator.hasNext()) {
+			Entry<T> eldest = iterator.next();
+			if (eldest.model() == model) {
+				break;
+			}
+			retainedBytes -= eldest.retainedBytes();
+			iterator.remove();
+			evictions++;
+		}
+		return model;
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+		retainedBytes = 0;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized long getRetainedBytes() {
+		return retainedBytes;
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	private record Entry<T>(T model, long retainedBytes) {
+	}
+}
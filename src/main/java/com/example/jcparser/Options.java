@@ -1,8 +1,23 @@
 package com.example.jcparser;
 
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.regex.Pattern;
+
 public final class Options {
 	private boolean constants = true;
 	private boolean refs = true;
+	private boolean json = false;
+	private int threads = 1;
+	private int concurrency = 0;
+	private Set<String> attributes = null;
+	private Path snapshot = null;
+	private Path cacheDirectory = null;
+	private Path symbolIndex = null;
+	private Path annotationIndex = null;
+	private Pattern search = null;
+	private String symbol = null;
+	private long cacheSize = 256L << 20;
 
 	public Options() {
 	}
@@ -22,4 +37,132 @@ public final class Options {
 	public void setRefs(boolean refs) {
 		this.refs = refs;
 	}
+
+	public boolean isJson() {
+		return json;
+	}
+
+	/**
+	 * Writes one JSON object per class file (JSON Lines) instead of the text dump.
+	 */
+	public void setJson(boolean json) {
+		this.json = json;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	public int getConcurrency() {
+		return concurrency;
+	}
+
+	/**
+	 * Parses every file on its own thread, with at most {@code concurrency} files in flight. Meant for
+	 * I/O-bound scans (network mounts, cold caches). Zero disables the mode.
+	 */
+	public void setConcurrency(int concurrency) {
+		this.concurrency = concurrency;
+	}
+
+	/**
+	 * @return true if the attribute should be parsed, all attributes are parsed when no names were set
+	 */
+	public boolean needAttribute(String name) {
+		return attributes == null || attributes.contains(name);
+	}
+
+	public Set<String> getAttributes() {
+		return attributes;
+	}
+
+	/**
+	 * @param attributes names of the attributes to parse, null to parse all of them
+	 */
+	public void setAttributes(Set<String> attributes) {
+		this.attributes = attributes;
+	}
+
+	public Path getSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * @param snapshot file to write the snapshot of the parsed class files to instead of the dump, null for the dump
+	 */
+	public void setSnapshot(Path snapshot) {
+		this.snapshot = snapshot;
+	}
+
+	public Path getCacheDirectory() {
+		return cacheDirectory;
+	}
+
+	/**
+	 * @param cacheDirectory directory to keep the output of every parsed class file in, null to parse every time
+	 */
+	public void setCacheDirectory(Path cacheDirectory) {
+		this.cacheDirectory = cacheDirectory;
+	}
+
+	public long getCacheSize() {
+		return cacheSize;
+	}
+
+	/**
+	 * @param cacheSize upper bound of the cache directory size in bytes
+	 */
+	public void setCacheSize(long cacheSize) {
+		this.cacheSize = cacheSize;
+	}
+
+	public Path getSymbolIndex() {
+		return symbolIndex;
+	}
+
+	/**
+	 * @param symbolIndex file to write the index of the referred symbols to instead of the dump, null for the dump
+	 */
+	public void setSymbolIndex(Path symbolIndex) {
+		this.symbolIndex = symbolIndex;
+	}
+
+	public Path getAnnotationIndex() {
+		return annotationIndex;
+	}
+
+	/**
+	 * @param annotationIndex file to write the index of the annotated classes, fields and methods to instead of
+	 *                        the dump, null for the dump
+	 */
+	public void setAnnotationIndex(Path annotationIndex) {
+		this.annotationIndex = annotationIndex;
+	}
+
+	public Pattern getSearch() {
+		return search;
+	}
+
+	/**
+	 * @param search text, with the {@link Pattern#LITERAL} flag, or regular expression to find in the constants
+	 *               instead of the dump, null for the dump
+	 */
+	public void setSearch(Pattern search) {
+		this.search = search;
+	}
+
+	public String getSymbol() {
+		return symbol;
+	}
+
+	/**
+	 * @param symbol class or member to look up in a symbol index given instead of a class file, null to parse
+	 */
+	public void setSymbol(String symbol) {
+		this.symbol = symbol;
+	}
 }
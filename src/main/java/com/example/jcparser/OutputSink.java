@@ -0,0 +1,156 @@
+package com.example.jcparser;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+/**
+ * Buffered text output of {@link Print}. Hex and decimal numbers and indents are rendered straight into
+ * the buffer without format strings. Nothing reaches the stream before {@link #flush()} or a full buffer.
+ */
+public class OutputSink implements Flushable {
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+	private static final char[] SPACES = " ".repeat(256).toCharArray();
+	private final Writer writer;
+	private final char[] buffer = new char[BUFFER_SIZE];
+	private int position;
+
+	public OutputSink(OutputStream out) {
+		this.writer = new OutputStreamWriter(out, Charset.defaultCharset());
+	}
+
+	public OutputSink append(char c) {
+		if (position == BUFFER_SIZE) {
+			write();
+		}
+		buffer[position++] = c;
+		return this;
+	}
+
+	public OutputSink append(String string) {
+		return append(string, 0, string.length());
+	}
+
+	public OutputSink append(String string, int start, int end) {
+		while (start < end) {
+			if (position == BUFFER_SIZE) {
+				write();
+			}
+			int count = Math.min(end - start, BUFFER_SIZE - position);
+			string.getChars(start, start + count, buffer, position);
+			position += count;
+			start += count;
+		}
+		return this;
+	}
+
+	public OutputSink newLine() {
+		return append('\n');
+	}
+
+	public OutputSink spaces(int count) {
+		while (count > 0) {
+			if (position == BUFFER_SIZE) {
+				write();
+			}
+			int chunk = Math.min(Math.min(count, SPACES.length), BUFFER_SIZE - position);
+			System.arraycopy(SPACES, 0, buffer, position, chunk);
+			position += chunk;
+			count -= chunk;
+		}
+		return this;
+	}
+
+	/**
+	 * Unsigned upper case hex with at least {@code digits} digits, like {@code %0<digits>X}.
+	 */
+	public OutputSink hex(int value, int digits) {
+		int length = Math.max(digits, (Integer.SIZE - Integer.numberOfLeadingZeros(value) + 3) / 4);
+		for (int shift = (length - 1) * 4; shift >= 0; shift -= 4) {
+			append(shift < Integer.SIZE ? HEX_DIGITS[value >>> shift & 0xF] : '0');
+		}
+		return this;
+	}
+
+	/**
+	 * Hex bytes of the value separated by spaces, like {@code CA FE BA BE} for four bytes.
+	 */
+	public OutputSink splitHex(int value, int bytes) {
+		for (int i = bytes - 1; i >= 0; i--) {
+			int b = value >>> i * 8;
+			append(HEX_DIGITS[b >>> 4 & 0xF]).append(HEX_DIGITS[b & 0xF]);
+			if (i > 0) {
+				append(' ');
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Hex with at least {@code width} characters padded by spaces on the left, like {@code %<width>X}.
+	 */
+	public OutputSink paddedHex(int value, int width) {
+		int length = Math.max(1, (Integer.SIZE - Integer.numberOfLeadingZeros(value) + 3) / 4);
+		return spaces(width - length).hex(value, length);
+	}
+
+	/**
+	 * Decimal with at least {@code digits} digits padded by zeros, like {@code %0<digits>d}.
+	 */
+	public OutputSink decimal(long value, int digits) {
+		if (value < 0) {
+			append('-');
+			digits--;
+		}
+		String string = Long.toString(Math.abs(value));
+		for (int i = string.length(); i < digits; i++) {
+			append('0');
+		}
+		return value == Long.MIN_VALUE ? append(string, 1, string.length()) : append(string);
+	}
+
+	/**
+	 * Same as {@code title.indent(indent).stripTrailing()}.
+	 */
+	public OutputSink indented(String title, int indent) {
+		if (title.indexOf('\n') >= 0 || title.indexOf('\r') >= 0) {
+			return append(title.indent(indent).stripTrailing());
+		}
+		int end = title.length();
+		while (end > 0 && Character.isWhitespace(title.charAt(end - 1))) {
+			end--;
+		}
+		if (end == 0) {
+			return this;
+		}
+		int start = 0;
+		while (start < -indent && Character.isWhitespace(title.charAt(start))) {
+			start++;
+		}
+		return spaces(indent).append(title, start, end);
+	}
+
+	@Override
+	public void flush() {
+		write();
+		try {
+			writer.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void write() {
+		try {
+			writer.write(buffer, 0, position);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		position = 0;
+	}
+}
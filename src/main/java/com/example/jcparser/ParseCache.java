@@ -0,0 +1,160 @@
+package com.example.jcparser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * On-disk cache of the output of class files, keyed by a hash of the class file bytes.
+ * Every entry is one file in the cache directory. The total size is bounded, the least recently used entries
+ * are deleted first, and the use time survives restarts as the last modified time of the file.
+ */
+public class ParseCache {
+	private static final String SUFFIX = ".out";
+	private static final long PRIME_1 = 0x9E3779B185EBCA87L;
+	private static final long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+	private final Path directory;
+	private final long maxBytes;
+	private final Map<String, Long> sizes = new LinkedHashMap<>(16, 0.75f, true);
+	private long totalBytes;
+	private long hits;
+	private long misses;
+
+	/**
+	 * Opens the directory, creating it if needed, and evicts entries above the size bound.
+	 */
+	public ParseCache(Path directory, long maxBytes) throws IOException {
+		this.directory = Files.createDirectories(directory);
+		this.maxBytes = maxBytes;
+		List<Path> files;
+		try (Stream<Path> stream = Files.list(directory)) {
+			files = stream.filter(f -> f.getFileName().toString().endsWith(SUFFIX))
+					.sorted(Comparator.comparing(ParseCache::lastModified)).toList();
+		}
+		for (Path file : files) {
+			long size = Files.size(file);
+			sizes.put(file.getFileName().toString(), size);
+			totalBytes += size;
+		}
+		evict();
+	}
+
+	/**
+	 * @param classFile bytes from the position to the limit, the position is not changed
+	 * @param variant   everything else the output depends on, like the options
+	 * @return 128-bit key of the class file and the variant as hex
+	 */
+	public static String key(ByteBuffer classFile, String variant) {
+		ByteBuffer bytes = classFile.duplicate();
+		CRC32C crc = new CRC32C();
+		crc.update(bytes.duplicate());
+		long hash = bytes.remaining() * PRIME_1;
+		while (bytes.remaining() >= Long.BYTES) {
+			hash = Long.rotateLeft(hash ^ bytes.getLong() * PRIME_2, 31) * PRIME_1;
+		}
+		while (bytes.hasRemaining()) {
+			hash = Long.rotateLeft(hash ^ bytes.get() * PRIME_2, 11) * PRIME_1;
+		}
+		hash = Long.rotateLeft(hash ^ variant.hashCode() * PRIME_2, 31) * PRIME_1;
+		hash ^= hash >>> 29;
+		return String.format("%016x%08x%08x", hash, crc.getValue(), classFile.remaining());
+	}
+
+	/**
+	 * @return the cached output or null
+	 */
+	public byte[] get(String key) {
+		String name = key + SUFFIX;
+		synchronized (this) {
+			if (sizes.get(name) == null) {
+				misses++;
+				return null;
+			}
+		}
+		Path file = directory.resolve(name);
+		try {
+			byte[] bytes = Files.readAllBytes(file);
+			Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+			synchronized (this) {
+				hits++;
+			}
+			return bytes;
+		} catch (NoSuchFileException e) {
+			synchronized (this) {
+				remove(name);
+				misses++;
+			}
+			return null;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public void put(String key, byte[] output) {
+		String name = key + SUFFIX;
+		try {
+			Path temp = Files.createTempFile(directory, key, ".tmp");
+			Files.write(temp, output);
+			Files.move(temp, directory.resolve(name), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		synchronized (this) {
+			remove(name);
+			sizes.put(name, (long) output.length);
+			totalBytes += output.length;
+			evict();
+		}
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized long getTotalBytes() {
+		return totalBytes;
+	}
+
+	private void remove(String name) {
+		Long size = sizes.remove(name);
+		if (size != null) {
+			totalBytes -= size;
+		}
+	}
+
+	private void evict() {
+		Iterator<Map.Entry<String, Long>> iterator = sizes.entrySet().iterator();
+		while (totalBytes > maxBytes && iterator.hasNext()) {
+			Map.Entry<String, Long> eldest = iterator.next();
+			try {
+				Files.deleteIfExists(directory.resolve(eldest.getKey()));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			totalBytes -= eldest.getValue();
+			iterator.remove();
+		}
+	}
+
+	private static FileTime lastModified(Path file) {
+		try {
+			return Files.getLastModifiedTime(file);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -13,24 +13,26 @@ import com.example.jcparser.attribute.ModuleAttribute.Requires;
 import com.example.jcparser.attribute.RecordAttribute.ComponentInfo;
 import com.example.jcparser.attribute.annotation.*;
 import com.example.jcparser.attribute.annotation.RuntimeAnnotationsAttribute.Annotation;
+import com.example.jcparser.attribute.instruction.Bytecode;
 import com.example.jcparser.attribute.instruction.CodeAttribute;
-import com.example.jcparser.attribute.instruction.InstructionSet;
-import com.example.jcparser.attribute.instruction.Instruction;
 import com.example.jcparser.attribute.stackmapframe.*;
 import com.example.jcparser.constantpool.*;
+import com.example.jcparser.index.SymbolIndex;
+import com.example.jcparser.snapshot.SnapshotWriter;
 
-import java.io.DataInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import static com.example.jcparser.AccessFlag.Type.*;
-import static com.example.jcparser.ConsoleColors.*;
-import static com.example.jcparser.ConsoleColors.addColor;
 import static com.example.jcparser.attribute.annotation.RuntimeTypeAnnotationsAttribute.*;
 
 /**
@@ -38,15 +40,36 @@ import static com.example.jcparser.attribute.annotation.RuntimeTypeAnnotationsAt
  */
 public class Parser {
 
-	private final Print print;
-	private int count = 0;
-	private final List<ConstantPoolEntry> constantPool = new ArrayList<>();
+	private static final int IO_CONCURRENCY = 256;
+
+	private ClassFileVisitor visitor;
+	private List<ConstantPoolEntry> constantPool = List.of();
+	private final ArrayList<ConstantPoolEntry> constantPoolEntries = new ArrayList<>();
 	private ConstantPoolEntry constantObject = null;
 	private final List<Attribute> attributes = new ArrayList<>();
+	private long skippedBytes = 0;
+
+	public Parser(ClassFileVisitor visitor) {
+		this.visitor = visitor;
+	}
 
-	public Parser(Print print) {
-		this.print = print;
-		print.getConstantFormater().setConstantPool(constantPool);
+	/**
+	 * Forgets the last class file and sets the visitor of the next one, so one parser per thread can be reused
+	 * for any number of class files. The lists of the parser keep their capacity.
+	 *
+	 * @return this parser
+	 */
+	public Parser reset(ClassFileVisitor visitor) {
+		this.visitor = visitor;
+		clear();
+		return this;
+	}
+
+	private void clear() {
+		constantPool = List.of();
+		constantPoolEntries.clear();
+		attributes.clear();
+		skippedBytes = 0;
 	}
 
 	public static void main(String[] args) {
@@ -54,9 +77,23 @@ public class Parser {
 		if (args.length == 0) {
 			System.err.println(
 					"""
-							Usage [-c] [-r] </path/file.class>
+							Usage [-c] [-r] [-j | -s=<file> | -i=<file> | -n=<file> | -f=<text> | -e=<regex>] [-a=<names>] [-p | -v[=<files>]] [-d=<directory>] </path/file.class | /path/file.jar | /path/directory>
+							      -q=<symbol> </path/index>
 							      -c Skip the print of the constant pool
-							      -r Skip the print of the indexes of the constant pool""");
+							      -r Skip the print of the indexes of the constant pool
+							      -j Print every class file as one line of JSON
+							      -s Write a binary snapshot of the parsed class files to the file
+							      -i Write an index of the classes, fields and methods referred to by the class files to the file
+							      -n Write an index of the annotated classes, fields and methods by annotation type to the file
+							      -f Print the constants of the class files containing the text, like http://
+							      -e Print the constants of the class files containing a match of the regular expression
+							      -q Print the classes referring to the class or member, like java/lang/String.valueOf, from the index,
+							         or the elements annotated with the annotation from the index of -n
+							      -a Parse only the attributes with the given comma separated names, skip the others
+							      -p Parse the files of an archive or a directory in parallel
+							      -v Read and parse every file on its own thread (for slow file systems), at most 256 files
+							         or the given number at once
+							      -d Cache the output of the classes of an archive or a directory in the directory""");
 			System.exit(1);
 		}
 		Options options = new Options();
@@ -68,6 +105,52 @@ public class Parser {
 			if ("-r".equals(arg)) {
 				options.setRefs(false);
 			}
+			if ("-j".equals(arg)) {
+				options.setJson(true);
+			}
+			if (arg.startsWith("-s=")) {
+				options.setSnapshot(Path.of(arg.substring("-s=".length())));
+			}
+			if (arg.startsWith("-i=")) {
+				options.setSymbolIndex(Path.of(arg.substring("-i=".length())));
+			}
+			if (arg.startsWith("-n=")) {
+				options.setAnnotationIndex(Path.of(arg.substring("-n=".length())));
+			}
+			if (arg.startsWith("-f=")) {
+				options.setSearch(Pattern.compile(arg.substring("-f=".length()), Pattern.LITERAL));
+			}
+			if (arg.startsWith("-e=")) {
+				try {
+					options.setSearch(Pattern.compile(arg.substring("-e=".length())));
+				} catch (PatternSyntaxException e) {
+					System.err.println(e.getMessage());
+					System.exit(1);
+				}
+			}
+			if (arg.startsWith("-q=")) {
+				options.setSymbol(arg.substring("-q=".length()));
+			}
+			if (arg.startsWith("-d=")) {
+				options.setCacheDirectory(Path.of(arg.substring("-d=".length())));
+			}
+			if (arg.startsWith("-a=")) {
+				options.setAttributes(Set.of(arg.substring("-a=".length()).split(",")));
+			}
+			if ("-p".equals(arg)) {
+				options.setThreads(Runtime.getRuntime().availableProcessors());
+			}
+			if ("-v".equals(arg)) {
+				options.setConcurrency(IO_CONCURRENCY);
+			}
+			if (arg.startsWith("-v=")) {
+				try {
+					options.setConcurrency(Integer.parseInt(arg.substring("-v=".length())));
+				} catch (NumberFormatException e) {
+					System.err.printf("Not a number of files: %s\n", arg);
+					System.exit(1);
+				}
+			}
 			if (!arg.startsWith("-")) {
 				fileName = arg;
 			}
@@ -77,95 +160,186 @@ public class Parser {
 			System.err.printf("File %s not exist\n", fileName);
 			System.exit(1);
 		}
-		Parser parser = new Parser(new Print(options));
-		parser.process(file);
+		if (options.getSymbol() != null) {
+			try {
+				SymbolIndex index = SymbolIndex.open(file.toPath());
+				for (int id : index.find(options.getSymbol())) {
+					System.out.println(index.getClassName(id) + " " + index.getSource(id));
+				}
+			} catch (IOException e) {
+				System.err.printf("Can't read %s: %s\n", fileName, e.getMessage());
+				System.exit(1);
+			}
+			return;
+		}
+		if (file.isDirectory() || ArchiveParser.isArchive(file) || options.getSymbolIndex() != null
+				|| options.getAnnotationIndex() != null || options.getSearch() != null) {
+			try {
+				new ArchiveParser(options).process(file);
+			} catch (IOException e) {
+				System.err.printf("Can't read %s: %s\n", fileName, e.getMessage());
+				System.exit(1);
+			}
+			return;
+		}
+		if (options.isJson()) {
+			new Parser(new JsonPrint(options, System.out, null)).process(file);
+			return;
+		}
+		if (options.getSnapshot() != null) {
+			SnapshotWriter snapshotWriter = new SnapshotWriter();
+			new Parser(snapshotWriter.newClass(file.getPath())).process(file);
+			try {
+				snapshotWriter.write(options.getSnapshot());
+			} catch (IOException e) {
+				System.err.printf("Can't write %s: %s\n", options.getSnapshot(), e.getMessage());
+				System.exit(1);
+			}
+			return;
+		}
+		Print print = new Print(options);
+		try {
+			new Parser(print).process(file);
+		} finally {
+			print.flush();
+		}
+	}
+
+	/**
+	 * Parses the class file from the buffer position to the limit into a model, nothing is formatted.
+	 * All attributes are decoded. The model is parsed from a copy, it never refers to the buffer of the caller.
+	 */
+	public static ClassFile parse(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.duplicate().get(bytes);
+		return parseOwned(bytes);
+	}
+
+	public static ClassFile parse(byte[] bytes) {
+		return parseOwned(bytes.clone());
+	}
+
+	/**
+	 * The file is read into the heap, the model keeps no mapping of it.
+	 */
+	public static ClassFile parse(Path path) throws IOException {
+		return parseOwned(Files.readAllBytes(path));
+	}
+
+	/**
+	 * Parses the array without a copy, like {@link ModelCache} does with its private copy of a class file.
+	 *
+	 * @param bytes class file handed over to the model, the code of the methods refers to it, the caller must not
+	 *              change it afterwards
+	 */
+	public static ClassFile parseOwned(byte[] bytes) {
+		ClassFile.Builder builder = new ClassFile.Builder();
+		new Parser(builder).process(ByteBuffer.wrap(bytes));
+		return builder.getClassFile();
 	}
 
+	/**
+	 * @return the constant pool of the last class file, valid until the parser is reset or reused
+	 */
 	public List<ConstantPoolEntry> getConstantPool() {
 		return constantPool;
 	}
 
-	private void process(File file) {
-
-		try (FileInputStream fis = new FileInputStream(file);
-		     DataInputStream dis = new DataInputStream(fis)) {
-			print.setOffsetWidth(file.length());
-			Magic.checkMagic(dis);
-			print.u4(new U4(0, ByteBuffer.wrap(Magic.bytes).getInt()), addColor(BLUE, "Magic"));
-			count = Magic.BYTES;
-			print.u2(readU2(dis), "Minor version", BLUE, true);
-			print.u2(readU2(dis), "Major version", BLUE, true);
-			U2 u2 = readU2(dis);
-			print.u2(u2, "Constant pool count", BLUE, true);
-			readConstantPool(dis, u2.value);
-			print.constantPool(constantPool);
-			U2 accessFlags = readU2(dis);
-			print.accessFlags(accessFlags, CLASS);
-			print.u2(readU2(dis, true), "This class");
-			print.u2(readU2(dis, true), "Super class");
-			readInterfaces(dis);
-			readFields(dis);
-			readMethods(dis);
-			U2 attributesCount = readU2(dis);
-			print.u2(attributesCount, "Attributes count", BLUE, true);
-			if (attributesCount.value > 0) {
-				attributes.addAll(readAttributes(dis, attributesCount.value, null));
-				print.attributes(attributes);
-			}
+	/**
+	 * @return total size of the attributes rejected by {@link ClassFileVisitor#acceptAttribute(String)}
+	 */
+	public long getSkippedBytes() {
+		return skippedBytes;
+	}
+
+	void process(File file) {
+		try {
+			process(new ReadBuffer().read(file.toPath()));
 		} catch (IOException e) {
 			e.getMessage();
 		}
 	}
 
-	private void readInterfaces(DataInputStream dis) throws IOException {
-		U2 u2 = readU2(dis);
-		print.u2(u2, "Interfaces count", BLUE, true);
-		int interfacesCount = u2.value;
-		for (int i = 0; i < interfacesCount; i++) {
-			print.u2(readU2(dis, true), "");
+	/**
+	 * Parses a class file held entirely in the buffer. All offsets are absolute positions in the buffer.
+	 * The state of the previously parsed class file is dropped first.
+	 */
+	public void process(ByteBuffer buffer) {
+		clear();
+		visitor.visitStart(buffer.limit());
+		Magic.checkMagic(buffer);
+		U4 magic = new U4(0, ByteBuffer.wrap(Magic.bytes).getInt());
+		U2 minorVersion = readU2(buffer);
+		U2 majorVersion = readU2(buffer);
+		visitor.visitHeader(magic, minorVersion, majorVersion);
+		U2 u2 = readU2(buffer);
+		visitor.visitConstantPoolCount(u2);
+		readConstantPool(buffer, u2.value);
+		visitor.visitConstantPool(constantPool);
+		U2 accessFlags = readU2(buffer);
+		U2 thisClass = readU2(buffer, true);
+		U2 superClass = readU2(buffer, true);
+		visitor.visitClass(accessFlags, thisClass, superClass);
+		visitor.visitInterfaces(readU2Array(buffer));
+		readFields(buffer);
+		readMethods(buffer);
+		U2 attributesCount = readU2(buffer);
+		visitor.visitAttributesCount(attributesCount);
+		if (attributesCount.value > 0) {
+			attributes.addAll(readAttributes(buffer, attributesCount.value, null));
+			attributes.forEach(visitor::visitAttribute);
 		}
+		visitor.visitEnd();
 	}
 
 	/**
 	 * <a href="https://docs.oracle.com/javase/specs/jvms/se17/html/jvms-4.html#jvms-4.5">4.5. Fields</a>
 	 */
-	private void readFields(DataInputStream dis) throws IOException {
-		readAdditionData(dis, FIELD);
+	private void readFields(ByteBuffer buffer) {
+		readAdditionData(buffer, FIELD);
 	}
 
 	/**
 	 * <a href="https://docs.oracle.com/javase/specs/jvms/se17/html/jvms-4.html#jvms-4.6">4.6. Methods</a>
 	 */
-	private void readMethods(DataInputStream dis) throws IOException {
-		readAdditionData(dis, METHOD);
+	private void readMethods(ByteBuffer buffer) {
+		readAdditionData(buffer, METHOD);
 	}
 
-	private void readAdditionData(DataInputStream dis, AccessFlag.Type type) throws IOException {
-		String title = (type == FIELD ? "Fields" : "Methods") + " count";
-		U2 u2 = readU2(dis);
-		print.u2(u2, title, BLUE, true);
+	private void readAdditionData(ByteBuffer buffer, AccessFlag.Type type) {
+		U2 u2 = readU2(buffer);
+		visitor.visitMembersCount(type, u2);
 		int length = u2.value;
 		for (int i = 0; i < length; i++) {
-			U2 accessFlags = readU2(dis);
-			print.accessFlags(accessFlags, type);
-			print.u2(readU2(dis, true), type.getTitle() + " name index");
-			U2 descriptor = readU2(dis, true);
-			print.u2(descriptor, type.getTitle() + " descriptor index");
-			u2 = readU2(dis);
-			print.u2(u2, type.getTitle() + " attributes count", true);
-			List<Attribute> attributes = new ArrayList<>(readAttributes(dis, u2.value, descriptor));
-			print.attributes(attributes);
+			U2 accessFlags = readU2(buffer);
+			U2 nameIndex = readU2(buffer, true);
+			U2 descriptor = readU2(buffer, true);
+			u2 = readU2(buffer);
+			if (type == FIELD) {
+				visitor.visitField(accessFlags, nameIndex, descriptor, u2);
+			} else {
+				visitor.visitMethod(accessFlags, nameIndex, descriptor, u2);
+			}
+			readAttributes(buffer, u2.value, descriptor).forEach(visitor::visitAttribute);
 		}
 	}
 
 	/**
 	 * <a href="https://docs.oracle.com/javase/specs/jvms/se17/html/jvms-4.html#jvms-4.7">4.7. Attributes</a>
 	 */
-	private List<Attribute> readAttributes(DataInputStream dis, int attributesCount, U2 additional) throws IOException {
+	private List<Attribute> readAttributes(ByteBuffer buffer, int attributesCount, U2 additional) {
 		List<Attribute> attributes = new ArrayList<>();
 		for (int i = 0; i < attributesCount; i++) {
-			Attribute attribute = readAttribute(dis, additional);
-			attributes.add(attribute);
+			int start = buffer.position();
+			String name = ((ConstantPoolUtf8) constantPool.get(Short.toUnsignedInt(buffer.getShort(start)))).getUtf8();
+			if (visitor.acceptAttribute(name)) {
+				attributes.add(readAttribute(buffer, additional));
+			} else {
+				int length = U2.BYTES + U4.BYTES + buffer.getInt(start + U2.BYTES);
+				buffer.position(start + length);
+				skippedBytes += length;
+				visitor.visitSkippedAttribute(name, start, length);
+			}
 		}
 		return attributes;
 	}
@@ -173,11 +347,20 @@ public class Parser {
 	/**
 	 * <a href="https://docs.oracle.com/javase/specs/jvms/se17/html/jvms-4.html#jvms-4.4">4.4. The Constant Pool</a>
 	 */
-	private void readConstantPool(DataInputStream dis, int constantPoolCount) throws IOException {
+	private void readConstantPool(ByteBuffer buffer, int constantPoolCount) {
+		if (visitor.lazyConstantPool()) {
+			constantPool = new LazyConstantPool(buffer, constantPoolCount);
+			return;
+		}
+		constantPoolEntries.ensureCapacity(constantPoolCount);
+		constantPool = constantPoolEntries;
 		constantPool.add(null); //The constant_pool table is indexed from 1 to constant_pool_count - 1.
 		for (int i = 1; i < constantPoolCount; i++) {
-			ConstantPoolEntry entry = createEntry(i, dis);
+			int offset = buffer.position();
+			ConstantPoolEntry entry = LazyConstantPool.createEntry(buffer, offset, i);
+			buffer.position(offset + LazyConstantPool.getEntrySize(buffer, offset));
 			constantPool.add(entry);
+			visitor.visitConstant(entry);
 			if (entry.getConstantTag().isTwoEntriesTakeUp()) {
 				constantPool.add(null);
 				i++;
@@ -185,122 +368,51 @@ public class Parser {
 		}
 	}
 
-	private ConstantPoolEntry createEntry(int idx, DataInputStream dis) throws IOException {
-		int offset = count;
-		int tag = dis.read();
-		count++;
-		ConstantTag constantTag = ConstantTag.getConstant(tag);
-
-		return switch (constantTag) {
-			case CONSTANT_Utf8 -> {
-				int length = dis.readUnsignedShort();
-				count += Short.BYTES;
-				count += length;
-				yield new ConstantPoolUtf8(offset, idx, constantTag, new String(dis.readNBytes(length)));
-			}
-			case CONSTANT_Integer -> {
-				int anInt = dis.readInt();
-				count += Integer.BYTES;
-				yield new ConstantPoolInteger(offset, idx, constantTag, anInt);
-			}
-			case CONSTANT_Float -> {
-				float aFloat = dis.readFloat();
-				count += Float.BYTES;
-				yield new ConstantPoolFloat(offset, idx, constantTag, aFloat);
-			}
-			case CONSTANT_Long -> {
-				long aLong = dis.readLong();
-				count += Long.BYTES;
-				yield new ConstantPoolLong(offset, idx, constantTag, aLong);
-			}
-			case CONSTANT_Double -> {
-				double aDouble = dis.readDouble();
-				count += Double.BYTES;
-				yield new ConstantPoolDouble(offset, idx, constantTag, aDouble);
-			}
-			case CONSTANT_Class, CONSTANT_String, CONSTANT_MethodType, CONSTANT_Module, CONSTANT_Package -> {
-				int aShort = dis.readUnsignedShort();
-				count += Short.BYTES;
-				yield new ConstantPoolString(offset, idx, constantTag, aShort);
-			}
-			case CONSTANT_Fieldref, CONSTANT_Methodref, CONSTANT_InterfaceMethodref -> {
-				int aShort = dis.readUnsignedShort();
-				count += Short.BYTES;
-				int bShort = dis.readUnsignedShort();
-				count += Short.BYTES;
-				yield new ConstantPoolMethodRef(offset, idx, constantTag, aShort, bShort);
-			}
-			case CONSTANT_NameAndType -> {
-				int aShort = dis.readUnsignedShort();
-				count += Short.BYTES;
-				int bShort = dis.readUnsignedShort();
-				count += Short.BYTES;
-				yield new ConstantPoolNameAndType(offset, idx, constantTag, aShort, bShort);
-			}
-			case CONSTANT_Dynamic, CONSTANT_InvokeDynamic -> {
-				int aShort = dis.readUnsignedShort();
-				count += Short.BYTES;
-				int bShort = dis.readUnsignedShort();
-				count += Short.BYTES;
-				yield new ConstantPoolDynamic(offset, idx, constantTag, aShort, bShort);
-			}
-			case CONSTANT_MethodHandle -> {
-				int referenceKind = dis.read();
-				count++;
-				int bShort = dis.readUnsignedShort();
-				count += Short.BYTES;
-				yield new ConstantPoolMethodHandle(offset, idx, constantTag, referenceKind, bShort);
-			}
-		};
-	}
-
 	/**
 	 * The implementation of the attributes follows the order shown in table 4.7-A
 	 * <a href="https://docs.oracle.com/javase/specs/jvms/se17/html/jvms-4.html#jvms-4.7-300">
 	 * Table 4.7-A. Predefined class file attributes (by section)</a>
 	 */
-	private Attribute readAttribute(DataInputStream dis, U2 additional) throws IOException {
-		U2 attributeNameIndex = readU2(dis, true);
+	private Attribute readAttribute(ByteBuffer buffer, U2 additional) {
+		U2 attributeNameIndex = readU2(buffer, true);
 		String name = ((ConstantPoolUtf8) constantPool.get(attributeNameIndex.getValue())).getUtf8();
-		U4 attributeLength = readU4(dis);
+		U4 attributeLength = readU4(buffer);
 
 		return switch (name) {
 			case "ConstantValue" -> {
 				Class<? extends ConstantPoolEntry> clazz = getClass(additional);
-				U2 constantValueIndex = readU2(dis, true).check(clazz);
+				U2 constantValueIndex = readU2(buffer, true).check(clazz);
 				yield new ConstantValueAttribute(attributeNameIndex, attributeLength, constantValueIndex);
 			}
 			case "Code" -> {
-				U2 maxStack = readU2(dis);
-				U2 maxLocals = readU2(dis);
-				U4 codeLength = readU4(dis);
-				List<Instruction> instructions = new ArrayList<>();
-				int startCodeCount = codeLength.getOffset() + U4.BYTES;
-				int endCodeCount = startCodeCount + codeLength.getValue();
-				do {
-					instructions.add(readInstruction(dis, startCodeCount));
-				} while (count < endCodeCount);
-				U2 exceptionTableLength = readU2(dis);
+				U2 maxStack = readU2(buffer);
+				U2 maxLocals = readU2(buffer);
+				U4 codeLength = readU4(buffer);
+				Bytecode bytecode = Bytecode.read(buffer, codeLength.getValue());
+				for (int i = 0; i < bytecode.size(); i++) {
+					visitor.visitInstruction(bytecode, i);
+				}
+				U2 exceptionTableLength = readU2(buffer);
 				int length = exceptionTableLength.getValue();
 				ExceptionsAttribute.Exception[] exceptions = new ExceptionsAttribute.Exception[length];
 				for (int i = 0; i < length; i++) {
-					exceptions[i] = readException(dis);
+					exceptions[i] = readException(buffer);
 				}
-				U2 numberOf = readU2(dis);
-				List<Attribute> attributes = new ArrayList<>(readAttributes(dis, numberOf.value, null));
+				U2 numberOf = readU2(buffer);
+				List<Attribute> attributes = List.copyOf(readAttributes(buffer, numberOf.value, null));
 				yield new CodeAttribute(attributeNameIndex, attributeLength, maxStack, maxLocals,
-						codeLength, instructions, exceptionTableLength, exceptions, numberOf, attributes);
+						codeLength, bytecode, exceptionTableLength, exceptions, numberOf, attributes);
 			}
 			case "StackMapTable" -> {
-				U2 numberOf = readU2(dis);
+				U2 numberOf = readU2(buffer);
 				List<StackMapFrame> entries = new ArrayList<>();
 				for (int i = 0; i < numberOf.getValue(); i++) {
-					entries.add(readStackMapFrame(dis));
+					entries.add(readStackMapFrame(buffer));
 				}
-				yield new StackMapTableAttribute(attributeNameIndex, attributeLength, numberOf, entries);
+				yield new StackMapTableAttribute(attributeNameIndex, attributeLength, numberOf, List.copyOf(entries));
 			}
 			case "Exceptions" -> {
-				U2Array exceptions = readU2Array(dis);
+				U2Array exceptions = readU2Array(buffer);
 				for (U2 exception : exceptions.array()) {
 					ConstantPoolEntry cpe = constantPool.get(exception.getValue());
 					if (!cpe.getConstantTag().isConstantClass()) {
@@ -311,161 +423,160 @@ public class Parser {
 				yield new ExceptionsAttribute(attributeNameIndex, attributeLength, exceptions);
 			}
 			case "InnerClasses" -> {
-				U2 numberOf = readU2(dis);
+				U2 numberOf = readU2(buffer);
 				InnerClass[] classes = new InnerClass[numberOf.getValue()];
 				for (int i = 0; i < numberOf.getValue(); i++) {
-					classes[i] = getInnerClass(i, dis);
+					classes[i] = getInnerClass(i, buffer);
 				}
 				yield new InnerClassesAttribute(attributeNameIndex, attributeLength,
 						numberOf, classes);
 			}
 			case "EnclosingMethod" -> {
-				U2 classIndex = readU2(dis, true);
-				U2 methodIndex = readU2(dis, true);
+				U2 classIndex = readU2(buffer, true);
+				U2 methodIndex = readU2(buffer, true);
 				yield new EnclosingMethodAttribute(attributeNameIndex, attributeLength,
 						classIndex, methodIndex);
 			}
 			case "Synthetic", "Deprecated" -> new Attribute(attributeNameIndex, attributeLength);
 			case "Signature" -> {
-				U2 aShort = readU2(dis, true);
+				U2 aShort = readU2(buffer, true);
 				yield new SignatureAttribute(attributeNameIndex, attributeLength, aShort);
 			}
 			case "SourceFile" -> {
-				U2 aShort = readU2(dis, true);
+				U2 aShort = readU2(buffer, true);
 				yield new SourceFileAttribute(attributeNameIndex, attributeLength, aShort);
 			}
 			case "SourceDebugExtension" -> {
-				String utf8 = new String(dis.readNBytes(attributeLength.getValue()));
+				String utf8 = ModifiedUtf8.decode(buffer, buffer.position(), attributeLength.getValue());
+				buffer.position(buffer.position() + attributeLength.getValue());
 				yield new SourceDebugExtensionAttribute(attributeNameIndex, attributeLength, utf8);
 			}
 			case "LineNumberTable" -> {
-				U2 numberOf = readU2(dis);
+				U2 numberOf = readU2(buffer);
 				LineNumber[] lineNumbers = new LineNumber[numberOf.getValue()];
 				for (int i = 0; i < numberOf.getValue(); i++) {
-					lineNumbers[i] = getLineNumber(i, dis);
+					lineNumbers[i] = getLineNumber(i, buffer);
 				}
 				yield new LineNumberTableAttribute(attributeNameIndex, attributeLength, numberOf,
 						lineNumbers);
 			}
 			case "LocalVariableTable" -> {
-				U2 numberOf = readU2(dis);
+				U2 numberOf = readU2(buffer);
 				LocalVariable[] localVariables = new LocalVariable[numberOf.getValue()];
 				for (int i = 0; i < numberOf.getValue(); i++) {
-					localVariables[i] = getLocalVariable(dis, "Descriptor");
+					localVariables[i] = getLocalVariable(buffer, "Descriptor");
 				}
 				yield new LocalVariableTableAttribute(attributeNameIndex, attributeLength, numberOf,
 						localVariables);
 			}
 			case "LocalVariableTypeTable" -> {
-				U2 numberOf = readU2(dis);
+				U2 numberOf = readU2(buffer);
 				LocalVariable[] localVariables = new LocalVariable[numberOf.getValue()];
 				for (int i = 0; i < numberOf.getValue(); i++) {
-					localVariables[i] = getLocalVariable(dis, "Signature");
+					localVariables[i] = getLocalVariable(buffer, "Signature");
 				}
 				yield new LocalVariableTypeTableAttribute(attributeNameIndex, attributeLength, numberOf,
 						localVariables);
 			}
 			case "RuntimeVisibleAnnotations" ->
-					getRuntimeAnnotationsAttribute(dis, attributeNameIndex, attributeLength, true);
+					getRuntimeAnnotationsAttribute(buffer, attributeNameIndex, attributeLength, true);
 			case "RuntimeInvisibleAnnotations" ->
-					getRuntimeAnnotationsAttribute(dis, attributeNameIndex, attributeLength, false);
+					getRuntimeAnnotationsAttribute(buffer, attributeNameIndex, attributeLength, false);
 			case "RuntimeVisibleParameterAnnotations" ->
-					getParameterAnnotations(dis, attributeNameIndex, attributeLength, true);
+					getParameterAnnotations(buffer, attributeNameIndex, attributeLength, true);
 			case "RuntimeInvisibleParameterAnnotations" ->
-					getParameterAnnotations(dis, attributeNameIndex, attributeLength, false);
+					getParameterAnnotations(buffer, attributeNameIndex, attributeLength, false);
 			case "RuntimeVisibleTypeAnnotations" ->
-					getTypeAnnotations(dis, attributeNameIndex, attributeLength, true); //todo
+					getTypeAnnotations(buffer, attributeNameIndex, attributeLength, true); //todo
 			case "RuntimeInvisibleTypeAnnotations" ->
-					getTypeAnnotations(dis, attributeNameIndex, attributeLength, false);  //todo
+					getTypeAnnotations(buffer, attributeNameIndex, attributeLength, false);  //todo
 			case "AnnotationDefault" -> {
-				ElementValue elementValue = readElementValue(dis);
+				ElementValue elementValue = readElementValue(buffer);
 				yield new AnnotationDefaultAttribute(attributeNameIndex, attributeLength, elementValue);
 			}
 			case "BootstrapMethods" -> {
-				U2 numberOf = readU2(dis);
+				U2 numberOf = readU2(buffer);
 				int length = numberOf.getValue();
 				BootstrapMethod[] bootstrapMethods = new BootstrapMethod[length];
 				for (int i = 0; i < length; i++) {
-					bootstrapMethods[i] = getBootstrapMethod(i, dis);
+					bootstrapMethods[i] = getBootstrapMethod(i, buffer);
 				}
 				yield new BootstrapMethodsAttribute(attributeNameIndex, attributeLength,
 						numberOf, bootstrapMethods);
 			}
 			case "MethodParameters" -> {
-				U1 numberOf = readU1(dis);
+				U1 numberOf = readU1(buffer);
 				MethodParameter[] methodParameters = new MethodParameter[numberOf.getValue()];
 				for (int i = 0; i < numberOf.getValue(); i++) {
-					methodParameters[i] = getMethodParameter(i, dis);
+					methodParameters[i] = getMethodParameter(i, buffer);
 				}
 				yield new MethodParameterAttribute(attributeNameIndex, attributeLength,
 						numberOf, methodParameters);
 			}
 			case "Module" -> {
-				U2 moduleNameIndex = readU2(dis, true);
-				U2 moduleFlags = readU2(dis);
-				U2 moduleVersionIndex = readU2(dis, true);
-				U2 requiresCount = readU2(dis);
+				U2 moduleNameIndex = readU2(buffer, true);
+				U2 moduleFlags = readU2(buffer);
+				U2 moduleVersionIndex = readU2(buffer, true);
+				U2 requiresCount = readU2(buffer);
 				Requires[] requires = new Requires[requiresCount.getValue()];
 				for (int i = 0; i < requiresCount.getValue(); i++) {
-					requires[i] = readRequires(i, dis);
+					requires[i] = readRequires(i, buffer);
 				}
-				U2 exportsCount = readU2(dis);
+				U2 exportsCount = readU2(buffer);
 				Exports[] exports = new Exports[exportsCount.getValue()];
 				for (int i = 0; i < exportsCount.getValue(); i++) {
-					exports[i] = readExports(i, dis);
+					exports[i] = readExports(i, buffer);
 				}
-				U2 opensCount = readU2(dis);
+				U2 opensCount = readU2(buffer);
 				Opens[] opens = new Opens[opensCount.getValue()];
 				for (int i = 0; i < opensCount.getValue(); i++) {
-					opens[i] = readOpens(i, dis);
+					opens[i] = readOpens(i, buffer);
 				}
-				U2Array uses = readU2Array(dis);
-				U2 providesCount = readU2(dis);
+				U2Array uses = readU2Array(buffer);
+				U2 providesCount = readU2(buffer);
 				Provides[] provides = new Provides[providesCount.getValue()];
 				for (int i = 0; i < providesCount.getValue(); i++) {
-					provides[i] = readProvides(i, dis);
+					provides[i] = readProvides(i, buffer);
 				}
 				yield new ModuleAttribute(attributeNameIndex, attributeLength,
 						moduleNameIndex, moduleFlags, moduleVersionIndex, requiresCount, requires, exportsCount, exports,
 						opensCount, opens, uses, providesCount, provides);
 			}
 			case "ModulePackages" -> {
-				U2Array packages = readU2Array(dis);
+				U2Array packages = readU2Array(buffer);
 				yield new ModulePackagesAttribute(attributeNameIndex, attributeLength, packages);
 			}
 			case "ModuleMainClass" -> {
-				U2 aShort = readU2(dis, true);
+				U2 aShort = readU2(buffer, true);
 				yield new ModuleMainClassAttribute(attributeNameIndex, attributeLength, aShort);
 			}
 			case "NestHost" -> {
-				U2 aShort = readU2(dis, true);
+				U2 aShort = readU2(buffer, true);
 				yield new NestHostAttribute(attributeNameIndex, attributeLength, aShort);
 			}
 			case "NestMembers" -> {
-				U2Array classes = readU2Array(dis);
+				U2Array classes = readU2Array(buffer);
 				yield new NestMembersAttribute(attributeNameIndex, attributeLength, classes);
 			}
 			case "Record" -> {
-				U2 numberOf = readU2(dis);
+				U2 numberOf = readU2(buffer);
 				ComponentInfo[] components = new ComponentInfo[numberOf.value];
 				for (int i = 0; i < numberOf.getValue(); i++) {
-					U2 nameIndex = readU2(dis, true);
-					U2 descriptionIndex = readU2(dis, true);
-					U2 numberOfComponents = readU2(dis);
-					List<Attribute> attributes = new ArrayList<>(readAttributes(dis, numberOfComponents.value, null));
+					U2 nameIndex = readU2(buffer, true);
+					U2 descriptionIndex = readU2(buffer, true);
+					U2 numberOfComponents = readU2(buffer);
+					List<Attribute> attributes = List.copyOf(readAttributes(buffer, numberOfComponents.value, null));
 					components[i] = new ComponentInfo(nameIndex, descriptionIndex, numberOfComponents,
 							attributes);
 				}
 				yield new RecordAttribute(attributeNameIndex, attributeLength, numberOf, components);
 			}
 			case "PermittedSubclasses" -> {
-				U2Array classes = readU2Array(dis);
+				U2Array classes = readU2Array(buffer);
 				yield new PermittedSubclassesAttribute(attributeNameIndex, attributeLength, classes);
 			}
 			default -> {
-				for (int j = 0; j < attributeLength.getValue(); j++) {
-					readByte(dis);
-				}
+				buffer.position(buffer.position() + attributeLength.getValue());
 				attributeLength = new U4(attributeLength.getOffset(), 0);//mark non-implemented attr, to show in the test 
 				yield new Attribute(attributeNameIndex, attributeLength);
 			}
@@ -488,390 +599,332 @@ public class Parser {
 		return clazz;
 	}
 
-	private U2Array readU2Array(DataInputStream dis) throws IOException {
-		U2 numberOf = readU2(dis);
+	private U2Array readU2Array(ByteBuffer buffer) {
+		U2 numberOf = readU2(buffer);
 		int arrayLength = numberOf.getValue();
 		U2[] array = new U2[arrayLength];
 		for (int i = 0; i < arrayLength; i++) {
-			array[i] = readU2(dis, true);
+			array[i] = readU2(buffer, true);
 		}
 		return new U2Array(numberOf, array);
 	}
 
-	private U1 readU1(DataInputStream dis) throws IOException {
-		int value = dis.readUnsignedByte();
-		U1 u1 = new U1(count, value);
-		count += U1.BYTES;
-		return u1;
+	private U1 readU1(ByteBuffer buffer) {
+		int offset = buffer.position();
+		return new U1(offset, Byte.toUnsignedInt(buffer.get()));
 	}
 
-	private U2 readU2(DataInputStream dis) throws IOException {
-		return readU2(dis, false);
+	private U2 readU2(ByteBuffer buffer) {
+		return readU2(buffer, false);
 	}
 
-	private U2 readU2(DataInputStream dis, boolean addSymbolicName) throws IOException {
+	private U2 readU2(ByteBuffer buffer, boolean addSymbolicName) {
 		ConstantPoolEntry cpe = null;
-		int value = dis.readUnsignedShort();
+		int offset = buffer.position();
+		int value = Short.toUnsignedInt(buffer.getShort());
 		if (addSymbolicName && !constantPool.isEmpty()) {
 			if (value > 0) {
 				cpe = constantPool.get(value);
 			} else {
 				if (constantObject == null) {
-					for (ConstantPoolEntry entry : constantPool) {
-						if (entry instanceof ConstantPoolUtf8 utf8 && "java/lang/Object".equals(utf8.getUtf8())) {
-							constantObject = entry;
-							break;
-						}
-					}
-					if (constantObject == null) {
-						constantObject = new ConstantPoolUtf8(0, 0, ConstantTag.CONSTANT_Utf8, "java/lang/Object");
-					}
+					constantObject = new ConstantPoolUtf8(0, 0, ConstantTag.CONSTANT_Utf8, "java/lang/Object");
 				}
 				cpe = constantObject;
 			}
 		}
-		U2 u2 = new U2(count, value, cpe);
-		count += U2.BYTES;
-		return u2;
+		return new U2(offset, value, cpe);
 	}
 
-	private U4 readU4(DataInputStream dis) throws IOException {
-		int value = dis.readInt();
-		U4 u4 = new U4(count, value);
-		count += U4.BYTES;
-		return u4;
-	}
-
-	private Instruction readInstruction(DataInputStream dis, int startCodeCount) throws IOException {
-		int offset = count;
-		int opcode = readByte(dis);
-		int size = InstructionSet.getOperandsSize(opcode);
-		List<Integer> operands = new ArrayList<>();
-		if (opcode == InstructionSet.WIDE.getOpcode()) {
-			int additionalOpcode = readByte(dis);
-			size = additionalOpcode == InstructionSet.IINC.getOpcode() ? 5 : 3;
-			operands.add(additionalOpcode);
-		}
-		if (opcode == InstructionSet.TABLESWITCH.getOpcode()) {
-			size = Instruction.getFirstBytePadding(offset, startCodeCount);
-			readNBytes(dis, operands, size);
-			size += 3 * U4.BYTES;
-			U4 defaultValue = readU4(dis);
-			operands.addAll(defaultValue.getIntList());
-			U4 low = readU4(dis);
-			operands.addAll(low.getIntList());
-			U4 high = readU4(dis);
-			operands.addAll(high.getIntList());
-			size += (high.getValue() - low.getValue() + 1) * U4.BYTES;
-		}
-		if (opcode == InstructionSet.LOOKUPSWITCH.getOpcode()) {
-			size = Instruction.getFirstBytePadding(offset, startCodeCount);
-			readNBytes(dis, operands, size);
-			size += 2 * U4.BYTES;
-			U4 defaultValue = readU4(dis);
-			operands.addAll(defaultValue.getIntList());
-			U4 nPairs = readU4(dis);
-			operands.addAll(nPairs.getIntList());
-			size += nPairs.getValue() * 2 * U4.BYTES;
-		}
-		readNBytes(dis, operands, size);
-		int[] operandsArray = operands.stream().mapToInt(i -> i).toArray();
-		return new Instruction(offset, opcode, operandsArray);
-	}
-
-	private int readByte(DataInputStream dis) throws IOException {
-		int value = dis.readUnsignedByte();
-		count += Byte.BYTES;
-		return value;
+	/**
+	 * Index 0 is no entry here, not {@code java/lang/Object}.
+	 */
+	private U2 readOptionalU2(ByteBuffer buffer) {
+		U2 u2 = readU2(buffer, true);
+		return u2.getValue() == 0 ? new U2(u2.getOffset(), 0, null) : u2;
 	}
 
-	private void readNBytes(DataInputStream dis, List<Integer> arguments, int n) throws IOException {
-		for (int i = arguments.size(); i < n; i++) {
-			arguments.add(readByte(dis));
-		}
+	private U4 readU4(ByteBuffer buffer) {
+		int offset = buffer.position();
+		return new U4(offset, buffer.getInt());
 	}
 
-	private StackMapFrame readStackMapFrame(DataInputStream dis) throws IOException {
-		U1 tag = readU1(dis);
+	private StackMapFrame readStackMapFrame(ByteBuffer buffer) {
+		U1 tag = readU1(buffer);
 		return switch (FrameType.getType(tag.getValue())) {
 			case SAME -> new StackMapFrame(tag);
 			case SAME_LOCALS_1_STACK_ITEM ->
-					new SameLocals1StackItemStackMapFrame(tag, new TypeInfo[]{getVerificationTypeInfo(dis)});
+					new SameLocals1StackItemStackMapFrame(tag, new TypeInfo[]{getVerificationTypeInfo(buffer)});
 			case SAME_LOCALS_1_STACK_ITEM_EXTENDED -> {
-				U2 offsetDelta = readU2(dis);
+				U2 offsetDelta = readU2(buffer);
 				yield new SameLocals1StackItemStackMapFrameExtended(tag, offsetDelta,
-						new TypeInfo[]{getVerificationTypeInfo(dis)});
+						new TypeInfo[]{getVerificationTypeInfo(buffer)});
 			}
 			case CHOP -> {
-				U2 offsetDelta = readU2(dis);
+				U2 offsetDelta = readU2(buffer);
 				yield new ChopStackMapFrame(tag, offsetDelta);
 			}
 			case SAME_FRAME_EXTENDED -> {
-				U2 offsetDelta = readU2(dis);
+				U2 offsetDelta = readU2(buffer);
 				yield new SameStackMapFrameExtended(tag, offsetDelta);
 			}
 			case APPEND -> {
-				U2 offsetDelta = readU2(dis);
+				U2 offsetDelta = readU2(buffer);
 				int size = tag.getValue() - 251;
 				TypeInfo[] stack = new TypeInfo[size];
 				for (int i = 0; i < size; i++) {
-					stack[i] = getVerificationTypeInfo(dis);
+					stack[i] = getVerificationTypeInfo(buffer);
 				}
 				yield new AppendStackMapFrame(tag, offsetDelta, stack);
 			}
 			case FULL_FRAME -> {
-				U2 offsetDelta = readU2(dis);
-				U2 numberOfLocal = readU2(dis);
+				U2 offsetDelta = readU2(buffer);
+				U2 numberOfLocal = readU2(buffer);
 				TypeInfo[] local = new TypeInfo[numberOfLocal.getValue()];
 				for (int i = 0; i < local.length; i++) {
-					local[i] = getVerificationTypeInfo(dis);
+					local[i] = getVerificationTypeInfo(buffer);
 				}
-				U2 numberOfStack = readU2(dis);
+				U2 numberOfStack = readU2(buffer);
 				TypeInfo[] stack = new TypeInfo[numberOfStack.getValue()];
 				for (int i = 0; i < stack.length; i++) {
-					stack[i] = getVerificationTypeInfo(dis);
+					stack[i] = getVerificationTypeInfo(buffer);
 				}
 				yield new FullStackMapFrame(tag, offsetDelta, numberOfLocal, local, numberOfStack, stack);
 			}
 		};
 	}
 
-	private TypeInfo getVerificationTypeInfo(DataInputStream dis) throws IOException {
-		U1 tag = readU1(dis);
+	private TypeInfo getVerificationTypeInfo(ByteBuffer buffer) {
+		U1 tag = readU1(buffer);
 		U2 typeInfoAdditional = null;
 		TypeInfo.Type tagType = TypeInfo.Type.getTagType(tag.getValue());
 		if (tagType == TypeInfo.Type.ITEM_Object) {
-			typeInfoAdditional = readU2(dis, true);
+			typeInfoAdditional = readU2(buffer, true);
 		} else if (tagType == TypeInfo.Type.ITEM_Uninitialized) {
-			typeInfoAdditional = readU2(dis);
+			typeInfoAdditional = readU2(buffer);
 		}
 		return new TypeInfo(tag, typeInfoAdditional);
 	}
 
-	private RuntimeAnnotationsAttribute getRuntimeAnnotationsAttribute(DataInputStream dis, U2 attributeNameIndex,
-	                                                                   U4 attributeLength, boolean visible) throws IOException {
-		ParameterAnnotation result = getParameterAnnotation(dis, visible);
+	private RuntimeAnnotationsAttribute getRuntimeAnnotationsAttribute(ByteBuffer buffer, U2 attributeNameIndex,
+	                                                                   U4 attributeLength, boolean visible) {
+		ParameterAnnotation result = getParameterAnnotation(buffer, visible);
 		return new RuntimeAnnotationsAttribute(attributeNameIndex, attributeLength, result.numberOf(),
 				result.annotations(), visible);
 	}
 
-	private Attribute getParameterAnnotations(DataInputStream dis, U2 attributeNameIndex,
-	                                          U4 attributeLength, boolean visible) throws IOException {
-		U1 numberOf = readU1(dis);
+	private Attribute getParameterAnnotations(ByteBuffer buffer, U2 attributeNameIndex,
+	                                          U4 attributeLength, boolean visible) {
+		U1 numberOf = readU1(buffer);
 		ParameterAnnotation[] parameterAnnotations = new ParameterAnnotation[numberOf.getValue()];
 		for (int i = 0; i < numberOf.getValue(); i++) {
-			parameterAnnotations[i] = getParameterAnnotation(dis, visible);
+			parameterAnnotations[i] = getParameterAnnotation(buffer, visible);
 		}
 		return new RuntimeParameterAnnotationsAttribute(attributeNameIndex, attributeLength, numberOf,
 				parameterAnnotations, visible);
 	}
 
-	private ParameterAnnotation getParameterAnnotation(DataInputStream dis, boolean visible) throws IOException {
-		U2 numberOf = readU2(dis);
+	private ParameterAnnotation getParameterAnnotation(ByteBuffer buffer, boolean visible) {
+		U2 numberOf = readU2(buffer);
 		Annotation[] annotations = new Annotation[numberOf.getValue()];
 		for (int i = 0; i < numberOf.getValue(); i++) {
-			annotations[i] = getAnnotation(dis);
+			annotations[i] = getAnnotation(buffer);
 		}
 		return new ParameterAnnotation(numberOf, annotations, visible);
 	}
 
-	private Attribute getTypeAnnotations(DataInputStream dis, U2 attributeNameIndex,
-	                                     U4 attributeLength, boolean visible) throws IOException {
-		U2 numberOf = readU2(dis);
+	private Attribute getTypeAnnotations(ByteBuffer buffer, U2 attributeNameIndex,
+	                                     U4 attributeLength, boolean visible) {
+		U2 numberOf = readU2(buffer);
 		TypeAnnotation[] typeAnnotations = new TypeAnnotation[numberOf.getValue()];
 		for (int i = 0; i < numberOf.getValue(); i++) {
-			typeAnnotations[i] = getTypeAnnotation(dis, visible);
+			typeAnnotations[i] = getTypeAnnotation(buffer, visible);
 		}
 		return new RuntimeTypeAnnotationsAttribute(attributeNameIndex, attributeLength, numberOf,
 				typeAnnotations, visible);
 	}
 
-	private TypeAnnotation getTypeAnnotation(DataInputStream dis, boolean visible)
-			throws IOException {
+	private TypeAnnotation getTypeAnnotation(ByteBuffer buffer, boolean visible) {
 
-		TargetInfo targetInfo = getTargetInfo(dis);
-		U1 typePathLength = readU1(dis);
+		TargetInfo targetInfo = getTargetInfo(buffer);
+		U1 typePathLength = readU1(buffer);
 		TypePath[] typePaths = new TypePath[typePathLength.getValue()];
 		for (int i = 0; i < typePathLength.getValue(); i++) {
-			typePaths[i] = getTypePath(dis);
+			typePaths[i] = getTypePath(buffer);
 		}
-		Annotation annotation = getAnnotation(dis);
+		Annotation annotation = getAnnotation(buffer);
 		return new TypeAnnotation(targetInfo, typePathLength, typePaths, annotation);
 	}
 
-	private TargetInfo getTargetInfo(DataInputStream dis) throws IOException {
-		U1 targetType = readU1(dis);
+	private TargetInfo getTargetInfo(ByteBuffer buffer) {
+		U1 targetType = readU1(buffer);
 		return switch (TypeTargetInfo.getType(targetType.getValue())) {
 			case TYPE_PARAMETER_TARGET -> {
-				U1 typeParameterIndex = readU1(dis);
+				U1 typeParameterIndex = readU1(buffer);
 				yield new TypeParameterTarget(targetType, typeParameterIndex);
 			}
 			case SUPERTYPE_TARGET -> {
-				U2 supertypeIndex = readU2(dis);
+				U2 supertypeIndex = readU2(buffer);
 				yield new SupertypeTargetClass(targetType, supertypeIndex);
 			}
 			case TYPE_PARAMETER_BOUND_TARGET -> {
-				U1 typeParameterIndex = readU2(dis);
-				U1 boundIndex = readU2(dis);
+				U1 typeParameterIndex = readU2(buffer);
+				U1 boundIndex = readU2(buffer);
 				yield new TypeParameterBoundTarget(targetType, typeParameterIndex, boundIndex);
 			}
 			case EMPTY_TARGET -> new EmptyTarget(targetType);
 			case FORMAL_PARAMETER_TARGET -> {
-				U1 formalParameterIndex = readU1(dis);
+				U1 formalParameterIndex = readU1(buffer);
 				yield new FormalParameterTarget(targetType, formalParameterIndex);
 			}
 			case THROWS_TARGET -> {
-				U2 throwsTypeIndex = readU2(dis);
+				U2 throwsTypeIndex = readU2(buffer);
 				yield new ThrowsTarget(targetType, throwsTypeIndex);
 			}
 			case LOCALVAR_TARGET -> {
-				U2 tableLength = readU2(dis);
+				U2 tableLength = readU2(buffer);
 				TableEntry[] table = new TableEntry[tableLength.getValue()];
 				for (int i = 0; i < tableLength.getValue(); i++) {
-					table[i] = getTableEntry(dis);
+					table[i] = getTableEntry(buffer);
 				}
 				yield new LocalVarTarget(targetType, table);
 			}
 			case CATCH_TARGET -> {
-				U2 exceptionTableIndex = readU2(dis);
+				U2 exceptionTableIndex = readU2(buffer);
 				yield new CatchTarget(targetType, exceptionTableIndex);
 			}
 			case OFFSET_TARGET -> {
-				U2 offset = readU2(dis);
+				U2 offset = readU2(buffer);
 				yield new OffsetTarget(targetType, offset);
 			}
 			case TYPE_ARGUMENT_TARGET -> {
-				U2 offset = readU2(dis);
-				U1 typeArgumentIndex = readU1(dis);
+				U2 offset = readU2(buffer);
+				U1 typeArgumentIndex = readU1(buffer);
 				yield new TypeArgumentTarget(targetType, offset, typeArgumentIndex);
 			}
 		};
 	}
 
-	private TypePath getTypePath(DataInputStream dis) throws IOException {
-		U1 typePathKind = readU1(dis);
-		U1 typeArgumentIndex = readU1(dis);
+	private TypePath getTypePath(ByteBuffer buffer) {
+		U1 typePathKind = readU1(buffer);
+		U1 typeArgumentIndex = readU1(buffer);
 		return new TypePath(typePathKind, typeArgumentIndex);
 	}
 
-	private TableEntry getTableEntry(DataInputStream dis) throws IOException {
-		U2 startPc = readU2(dis);
-		U2 length = readU2(dis);
-		U2 index = readU2(dis);
+	private TableEntry getTableEntry(ByteBuffer buffer) {
+		U2 startPc = readU2(buffer);
+		U2 length = readU2(buffer);
+		U2 index = readU2(buffer);
 		return new TableEntry(startPc, length, index);
 	}
 
-	public BootstrapMethod getBootstrapMethod(int index, DataInputStream dis) throws IOException {
-		U2 bootstrapMethodRef = readU2(dis, true);
-		U2Array bootstrapArguments = readU2Array(dis);
+	public BootstrapMethod getBootstrapMethod(int index, ByteBuffer buffer) {
+		U2 bootstrapMethodRef = readU2(buffer, true);
+		U2Array bootstrapArguments = readU2Array(buffer);
 		return new BootstrapMethod(index, bootstrapMethodRef, bootstrapArguments);
 	}
 
-	private MethodParameter getMethodParameter(int index, DataInputStream dis) throws IOException {
-		U2 nameIndex = readU2(dis, true);
-		U2 accessFlag = readU2(dis);
+	private MethodParameter getMethodParameter(int index, ByteBuffer buffer) {
+		U2 nameIndex = readU2(buffer, true);
+		U2 accessFlag = readU2(buffer);
 		return new MethodParameter(index, nameIndex, accessFlag);
 	}
 
-	private Requires readRequires(int index, DataInputStream dis) throws IOException {
-		U2 requiresIndex = readU2(dis, true);
-		U2 accessFlag = readU2(dis);
-		U2 requiresVersionIndex = readU2(dis, true);
+	private Requires readRequires(int index, ByteBuffer buffer) {
+		U2 requiresIndex = readU2(buffer, true);
+		U2 accessFlag = readU2(buffer);
+		U2 requiresVersionIndex = readU2(buffer, true);
 		return new Requires(index, requiresIndex, accessFlag, requiresVersionIndex);
 	}
 
-	private Exports readExports(int index, DataInputStream dis) throws IOException {
-		U2 exportsIndex = readU2(dis, true);
-		U2 accessFlag = readU2(dis);
-		U2Array exportsToIndex = readU2Array(dis);
+	private Exports readExports(int index, ByteBuffer buffer) {
+		U2 exportsIndex = readU2(buffer, true);
+		U2 accessFlag = readU2(buffer);
+		U2Array exportsToIndex = readU2Array(buffer);
 		return new Exports(index, exportsIndex, accessFlag, exportsToIndex);
 	}
 
-	private Opens readOpens(int index, DataInputStream dis) throws IOException {
-		U2 opensIndex = readU2(dis, true);
-		U2 accessFlag = readU2(dis);
-		U2Array opensToIndex = readU2Array(dis);
+	private Opens readOpens(int index, ByteBuffer buffer) {
+		U2 opensIndex = readU2(buffer, true);
+		U2 accessFlag = readU2(buffer);
+		U2Array opensToIndex = readU2Array(buffer);
 		return new Opens(index, opensIndex, accessFlag, opensToIndex);
 	}
 
-	private Provides readProvides(int index, DataInputStream dis) throws IOException {
-		U2 providesIndex = readU2(dis, true);
-		U2Array providesWithIndex = readU2Array(dis);
+	private Provides readProvides(int index, ByteBuffer buffer) {
+		U2 providesIndex = readU2(buffer, true);
+		U2Array providesWithIndex = readU2Array(buffer);
 		return new Provides(index, providesIndex, providesWithIndex);
 	}
 
-	public InnerClass getInnerClass(int index, DataInputStream dis) throws IOException {
-		U2 innerClassInfoIndex = readU2(dis, true);
-		U2 outerClassInfoIndex = readU2(dis, true);
-		outerClassInfoIndex.clearCpe();
-		U2 innerNameIndex = readU2(dis, true);
-		innerNameIndex.clearCpe();
-		U2 innerClassAccessFlags = readU2(dis);
-		innerClassAccessFlags.clearCpe();
+	public InnerClass getInnerClass(int index, ByteBuffer buffer) {
+		U2 innerClassInfoIndex = readU2(buffer, true);
+		U2 outerClassInfoIndex = readOptionalU2(buffer);
+		U2 innerNameIndex = readOptionalU2(buffer);
+		U2 innerClassAccessFlags = readU2(buffer);
 		return new InnerClass(index, innerClassInfoIndex, outerClassInfoIndex, innerNameIndex, innerClassAccessFlags);
 	}
 
-	public LineNumber getLineNumber(int index, DataInputStream dis) throws IOException {
-		U2 startPC = readU2(dis);
-		U2 lineNumber = readU2(dis);
+	public LineNumber getLineNumber(int index, ByteBuffer buffer) {
+		U2 startPC = readU2(buffer);
+		U2 lineNumber = readU2(buffer);
 		return new LineNumber(index, startPC, lineNumber);
 	}
 
-	private LocalVariable getLocalVariable(DataInputStream dis, String descriptorTitle) throws IOException {
-		U2 startPC = readU2(dis);
-		U2 length = readU2(dis);
-		U2 nameIndex = readU2(dis, true);
-		U2 descriptorIndex = readU2(dis, true);
-		U2 index = readU2(dis);
+	private LocalVariable getLocalVariable(ByteBuffer buffer, String descriptorTitle) {
+		U2 startPC = readU2(buffer);
+		U2 length = readU2(buffer);
+		U2 nameIndex = readU2(buffer, true);
+		U2 descriptorIndex = readU2(buffer, true);
+		U2 index = readU2(buffer);
 		return new LocalVariable(startPC, length, nameIndex, descriptorIndex, index, descriptorTitle);
 	}
 
-	private Annotation getAnnotation(DataInputStream dis) throws IOException {
-		U2 typeIndex = readU2(dis, true).check(ConstantPoolUtf8.class);
-		U2 lengthOfPair = readU2(dis);
+	private Annotation getAnnotation(ByteBuffer buffer) {
+		U2 typeIndex = readU2(buffer, true).check(ConstantPoolUtf8.class);
+		U2 lengthOfPair = readU2(buffer);
 		ValuePair[] valuePairs = new ValuePair[lengthOfPair.getValue()];
 		for (int i = 0; i < lengthOfPair.getValue(); i++) {
-			valuePairs[i] = readValuePair(dis);
+			valuePairs[i] = readValuePair(buffer);
 		}
 		return new Annotation(
 				typeIndex, lengthOfPair, valuePairs);
 	}
 
-	private ValuePair readValuePair(DataInputStream dis) throws IOException {
-		U2 nameIndex = readU2(dis, true);
-		ElementValue elementValue = readElementValue(dis);
+	private ValuePair readValuePair(ByteBuffer buffer) {
+		U2 nameIndex = readU2(buffer, true);
+		ElementValue elementValue = readElementValue(buffer);
 		return new ValuePair(nameIndex, elementValue);
 	}
 
-	private ElementValue readElementValue(DataInputStream dis) throws IOException {
+	private ElementValue readElementValue(ByteBuffer buffer) {
 		U2 u2First = null;
 		U2 u2Second = null;
 		ElementValue[] elementValues = null;
 		Annotation annotation = null;
-		U1 tag = readU1(dis);
+		U1 tag = readU1(buffer);
 		switch (TagValueItem.getTagValue(tag.getValue())) {
-			case CONST_VALUE_INDEX, CLASS_INFO_INDEX -> u2First = readU2(dis, true);
+			case CONST_VALUE_INDEX, CLASS_INFO_INDEX -> u2First = readU2(buffer, true);
 			case ENUM_CONST_VALUE -> {
-				u2First = readU2(dis, true);
-				u2Second = readU2(dis, true);
+				u2First = readU2(buffer, true);
+				u2Second = readU2(buffer, true);
 			}
-			case ANNOTATION_VALUE -> annotation = getAnnotation(dis);
+			case ANNOTATION_VALUE -> annotation = getAnnotation(buffer);
 			case ARRAY_VALUE -> {
-				u2First = readU2(dis);
+				u2First = readU2(buffer);
 				elementValues = new ElementValue[u2First.getValue()];
 				for (int i = 0; i < u2First.getValue(); i++) {
-					elementValues[i] = readElementValue(dis);
+					elementValues[i] = readElementValue(buffer);
 				}
 			}
 		}
 		return new ElementValue(tag, u2First, u2Second, annotation, elementValues);
 	}
 
-	public ExceptionsAttribute.Exception readException(DataInputStream dis) throws IOException {
-		U2 startPc = readU2(dis);
-		U2 endPc = readU2(dis);
-		U2 handlerPc = readU2(dis);
-		U2 catchType = readU2(dis, true).check(ConstantPoolString.class);
+	public ExceptionsAttribute.Exception readException(ByteBuffer buffer) {
+		U2 startPc = readU2(buffer);
+		U2 endPc = readU2(buffer);
+		U2 handlerPc = readU2(buffer);
+		U2 catchType = readU2(buffer, true).check(ConstantPoolString.class);
 		return new ExceptionsAttribute.Exception(startPc, endPc, handlerPc, catchType);
 	}
 
@@ -879,8 +932,9 @@ public class Parser {
 		static final byte[] bytes = {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE};
 		static final int BYTES = bytes.length;
 
-		private static void checkMagic(DataInputStream dis) throws IOException {
-			byte[] magic = dis.readNBytes(Magic.BYTES);
+		private static void checkMagic(ByteBuffer buffer) {
+			byte[] magic = new byte[Magic.BYTES];
+			buffer.get(magic);
 			if (!Arrays.equals(magic, Magic.bytes)) {
 				StringBuilder sb = new StringBuilder();
 				for (byte b : magic) {
@@ -909,10 +963,6 @@ public class Parser {
 			return value;
 		}
 
-		public List<Integer> getIntList() {
-			return Arrays.stream(getByteArray()).boxed().toList();
-		}
-
 		public int[] getByteArray() {
 			return new int[]{value & 0xFF};
 		}
@@ -922,21 +972,18 @@ public class Parser {
 		}
 	}
 
-	public class U2 extends U1 {
+	/**
+	 * Detached from the parser, a value of a model outlives it.
+	 */
+	public static class U2 extends U1 {
 		public static final int BYTES = 2;
-		private ConstantPoolEntry cpe;
+		private final ConstantPoolEntry cpe;
 
 		public U2(int offset, int value, ConstantPoolEntry cpe) {
 			super(offset, value);
 			this.cpe = cpe;
 		}
 
-		public void clearCpe() {
-			if (value == 0) {
-				cpe = null;
-			}
-		}
-
 		public ConstantPoolEntry getCpe() {
 			return cpe;
 		}
@@ -948,16 +995,16 @@ public class Parser {
 
 		@Override
 		public U2 check(Class<?> clazz) {
-			if (value != 0 && clazz != null && !clazz.isInstance(getConstantPool().get(value))) {
+			if (value != 0 && clazz != null && !clazz.isInstance(cpe)) {
 				String message = String.format("%04X Value = %s expected a %s actual %s",
-						getOffset(), value, clazz.getName(), getConstantPool().get(value));
+						getOffset(), value, clazz.getName(), cpe);
 				throw new RuntimeException(message);
 			}
 			return this;
 		}
 	}
 
-	public class U4 extends U2 {
+	public static class U4 extends U2 {
 		public static final int BYTES = 4;
 
 		public U4(int offset, int value) {
@@ -971,5 +1018,17 @@ public class Parser {
 	}
 
 	public record U2Array(U2 numberOf, U2[] array) {
+
+		public U2Array {
+			array = array.clone();
+		}
+
+		/**
+		 * @return a copy, the array of the record is never shared
+		 */
+		@Override
+		public U2[] array() {
+			return array.clone();
+		}
 	}
 }
@@ -9,27 +9,34 @@ import com.example.jcparser.attribute.instruction.InstructionSet;
 import com.example.jcparser.attribute.stackmapframe.StackFramePrinter;
 import com.example.jcparser.constantpool.*;
 
-import java.util.Arrays;
+import java.io.PrintStream;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static com.example.jcparser.AccessFlag.getAccessFlags;
 
-public class Print {
+public class Print implements ClassFileVisitor {
 
 	public static final String YELLOW_STRING = ConsoleColors.YELLOW + "%s" + ConsoleColors.RESET;
 	public static final String HEX_2 = " (%02X)";
 	public static final int SPACES_IN_INTENT = 6;
 	private final Options options;
+	private final OutputSink out;
 	private final InstructionPrinter instructionPrinter = new InstructionPrinter(this);
 	private final StackFramePrinter stackFramePrinter = new StackFramePrinter(this);
 	private final AttributePrinter attributePrinter = new AttributePrinter(this);
 	private final ConstantFormater constantFormater = new ConstantFormater(this);
 	private String OFFSET_FORMAT = "%04X ";
+	private int offsetWidth = 4;
 	private int indent;
+	private long skippedBytes;
 
 	public Print(Options options) {
+		this(options, System.out);
+	}
+
+	public Print(Options options, PrintStream out) {
 		this.options = options;
+		this.out = new OutputSink(out);
 	}
 
 	public Options getOptions() {
@@ -49,28 +56,136 @@ public class Print {
 	}
 
 	public void setOffsetWidth(long length) {
-		OFFSET_FORMAT = "%0" + Long.toHexString(length).length() + "X ";
+		offsetWidth = Long.toHexString(length).length();
+		OFFSET_FORMAT = "%0" + offsetWidth + "X ";
 	}
 
 	public String getOffsetFormat() {
 		return OFFSET_FORMAT;
 	}
 
+	@Override
+	public void visitStart(long length) {
+		setOffsetWidth(length);
+	}
+
+	@Override
+	public void visitHeader(U4 magic, U2 minorVersion, U2 majorVersion) {
+		u4(magic, ConsoleColors.addColor(ConsoleColors.BLUE, "Magic"));
+		u2(minorVersion, "Minor version", ConsoleColors.BLUE, true);
+		u2(majorVersion, "Major version", ConsoleColors.BLUE, true);
+	}
+
+	@Override
+	public void visitConstantPoolCount(U2 count) {
+		u2(count, "Constant pool count", ConsoleColors.BLUE, true);
+	}
+
+	@Override
+	public boolean lazyConstantPool() {
+		return !options.needConstants();
+	}
+
+	@Override
+	public void visitConstantPool(List<ConstantPoolEntry> constantPool) {
+		constantFormater.setConstantPool(constantPool);
+		constantPool(constantPool);
+	}
+
+	@Override
+	public void visitClass(U2 accessFlags, U2 thisClass, U2 superClass) {
+		accessFlags(accessFlags, AccessFlag.Type.CLASS);
+		u2(thisClass, "This class");
+		u2(superClass, "Super class");
+	}
+
+	@Override
+	public void visitInterfaces(U2Array interfaces) {
+		u2(interfaces.numberOf(), "Interfaces count", ConsoleColors.BLUE, true);
+		for (U2 u2 : interfaces.array()) {
+			u2(u2, "");
+		}
+	}
+
+	@Override
+	public void visitMembersCount(AccessFlag.Type type, U2 count) {
+		String title = (type == AccessFlag.Type.FIELD ? "Fields" : "Methods") + " count";
+		u2(count, title, ConsoleColors.BLUE, true);
+	}
+
+	@Override
+	public void visitField(U2 accessFlags, U2 nameIndex, U2 descriptorIndex, U2 attributesCount) {
+		member(AccessFlag.Type.FIELD, accessFlags, nameIndex, descriptorIndex, attributesCount);
+	}
+
+	@Override
+	public void visitMethod(U2 accessFlags, U2 nameIndex, U2 descriptorIndex, U2 attributesCount) {
+		member(AccessFlag.Type.METHOD, accessFlags, nameIndex, descriptorIndex, attributesCount);
+	}
+
+	private void member(AccessFlag.Type type, U2 accessFlags, U2 nameIndex, U2 descriptorIndex, U2 attributesCount) {
+		accessFlags(accessFlags, type);
+		u2(nameIndex, type.getTitle() + " name index");
+		u2(descriptorIndex, type.getTitle() + " descriptor index");
+		u2(attributesCount, type.getTitle() + " attributes count", true);
+	}
+
+	@Override
+	public void visitAttributesCount(U2 count) {
+		u2(count, "Attributes count", ConsoleColors.BLUE, true);
+	}
+
+	@Override
+	public boolean acceptAttribute(String name) {
+		return options.needAttribute(name);
+	}
+
+	@Override
+	public void visitSkippedAttribute(String name, int offset, int length) {
+		skippedBytes += length;
+	}
+
+	@Override
+	public void visitAttribute(Attribute attribute) {
+		attributes(List.of(attribute));
+	}
+
+	@Override
+	public void visitEnd() {
+		if (skippedBytes > 0) {
+			out.append("Skipped attributes: ").decimal(skippedBytes, 0).append(" bytes").newLine();
+		}
+		out.flush();
+	}
+
+	/**
+	 * Renders a class file parsed before by {@link Parser#parse(java.nio.ByteBuffer)}.
+	 */
+	public void print(ClassFile classFile) {
+		classFile.accept(this);
+	}
+
+	/**
+	 * Writes the buffered output to the stream.
+	 */
+	public void flush() {
+		out.flush();
+	}
+
 	public void u1(Parser.U1 u1, String title, boolean addDecimal) {
 		u1(u1, title, addDecimal, "");
 	}
 
 	public void u1(U1 u1, String title, boolean addDecimal, String stringValue) {
-		String hexValue = String.format("%02X", u1.getValue());
-		String value;
-		String valueFormat = addDecimal ? " %s" : "%s";
-		String parenthesesType = stringValue.isEmpty() ? "[%02d]" : "(%02d)";
-		value = String.format(addDecimal ? parenthesesType : "", u1.getValue());
+		offset(u1.getOffset()).hex(u1.getValue(), 2).spaces(4).indented(title, getIndents());
+		if (addDecimal) {
+			boolean brackets = stringValue.isEmpty();
+			out.append(' ').append(brackets ? '[' : '(').decimal(u1.getValue(), 2).append(brackets ? ']' : ')');
+		}
 		if (!stringValue.isEmpty()) {
-			valueFormat += " " + YELLOW_STRING;
+			out.append(' ').append(ConsoleColors.YELLOW).append(stringValue).append(ConsoleColors.RESET);
 		}
-		System.out.printf(OFFSET_FORMAT + "%s    %s" + valueFormat + "\n", u1.getOffset(), hexValue,
-				title.indent(getIndents()).stripTrailing(), value, stringValue);
+		out.newLine();
 	}
 
 	public void u2(Parser.U2 u2, String title) {
@@ -82,24 +197,32 @@ public class Print {
 	}
 
 	public void u2(Parser.U2 u2, String title, String titleColor, boolean addDecimal) {
-		String hexValue = String.format("%04X", u2.getValue());
-		StringBuilder splitHexValue = getSplitHexValue(hexValue);
-		String valueFormat = addDecimal ? " %s" : "%s";
-		String decimalValue = String.format(addDecimal ? "[%02d]" : "", u2.getValue());
-		String constantString = "";
+		offset(u2.getOffset()).splitHex(u2.getValue(), 2).append(' ');
+		coloredTitle(titleColor, title);
+		if (addDecimal) {
+			out.append(" [").decimal(u2.getValue(), 2).append(']');
+		}
 		if (u2.getCpe() != null) {
-			constantString = constantFormater.formatNewOnlyString(u2.getCpe());
+			String constantString = constantFormater.formatNewOnlyString(u2.getCpe());
+			if (!constantString.isEmpty()) {
+				out.append(' ').append(constantString);
+			}
+		}
+		out.newLine();
+	}
+
+	private void coloredTitle(String titleColor, String title) {
+		if (getIndents() < 0 || title.indexOf('\n') >= 0 || title.indexOf('\r') >= 0) {
+			out.indented(ConsoleColors.addColor(titleColor, title), getIndents());
+		} else {
+			out.spaces(getIndents()).append(titleColor).append(title).append(ConsoleColors.RESET);
 		}
-		String yellowString = constantString.isEmpty() ? "%s" : " %s";
-		String coloredTitle = ConsoleColors.addColor(titleColor, title);
-		System.out.printf(OFFSET_FORMAT + "%s " + "%s" + valueFormat + yellowString + "\n",
-				u2.getOffset(), splitHexValue, coloredTitle.indent(getIndents()).stripTrailing(), decimalValue, constantString);
 	}
 
 	public void u2WithIndex(int index, Parser.U2 u2, String title) {
-		String formatedIndex = String.format("%5X ", index);
+		String hexIndex = Integer.toHexString(index).toUpperCase();
 		decIndent();
-		u2(u2, formatedIndex + title);
+		u2(u2, " ".repeat(Math.max(0, 5 - hexIndex.length())) + hexIndex + " " + title);
 		incIndent();
 	}
 
@@ -114,22 +237,15 @@ public class Print {
 	}
 
 	public void u4(Parser.U4 u4, String title) {
-		String hexValue = String.format("%08X", u4.getValue());
-		StringBuilder splitHexValue = getSplitHexValue(hexValue);
-		System.out.printf(OFFSET_FORMAT + "%s %s\n",
-				u4.getOffset(), splitHexValue, title.indent(getIndents() - 6).stripTrailing());
+		offset(u4.getOffset()).splitHex(u4.getValue(), 4).append(' ').indented(title, getIndents() - 6).newLine();
 	}
 
 	public void debugInfo(int offset, String info) {
-		System.out.printf(OFFSET_FORMAT + "%s\n", offset, info);
+		offset(offset).append(info).newLine();
 	}
 
-	private static StringBuilder getSplitHexValue(String hexValue) {
-		StringBuilder splitHexValue = new StringBuilder(hexValue);
-		for (int i = 2; i < splitHexValue.length(); i += 3) {
-			splitHexValue.insert(i, " ");
-		}
-		return splitHexValue;
+	private OutputSink offset(int offset) {
+		return out.hex(offset, offsetWidth).append(' ');
 	}
 
 	public void constantPool(List<ConstantPoolEntry> constants) {
@@ -144,18 +260,19 @@ public class Print {
 				i++;
 			}
 		}
+		out.flush();
 	}
 
 	void constantPoolEntry(ConstantFormater constantFormater) {
-		System.out.println(constantFormater.getFormatedString());
+		out.append(constantFormater.getFormatedString()).newLine();
 		constantFormater.setPrintGeneral(true);
 	}
 
 	public void accessFlags(Parser.U2 u2, AccessFlag.Type type) {
 		String flags = getAccessFlags(u2.getValue(), type);
 		String title = type.getTitle() + " access flags";
-		System.out.printf(OFFSET_FORMAT + "%s %s" + YELLOW_STRING + "\n", u2.getOffset(),
-				getSplitHexValue(String.format("%04X", u2.getValue())), title.indent(getIndents()).stripTrailing(), flags);
+		offset(u2.getOffset()).splitHex(u2.getValue(), 2).append(' ').indented(title, getIndents())
+				.append(ConsoleColors.YELLOW).append(flags).append(ConsoleColors.RESET).newLine();
 	}
 
 	public void attributes(List<Attribute> attributes) {
@@ -168,15 +285,34 @@ public class Print {
 
 	public void instruction(Instruction instruction, String label, String mnemonic, String strOperands) {
 		InstructionSet.Type type = InstructionSet.getOperandsType(instruction.opcode());
-		String hexOperands = instruction.operands().length > 0
-				&& type != InstructionSet.Type.LOOKUPSWITCH && type != InstructionSet.Type.TABLESWITCH
-				? " " + Arrays.stream(instruction.operands()).mapToObj(num -> String.format("%02X", num))
-				.collect(Collectors.joining(" "))
-				: "";
-		String strArgFormat = strOperands.isEmpty() ? "" : " %s";
-		String labelFormat = hexOperands.length() < 15 ? " %8s" : "%s";
-		System.out.printf(OFFSET_FORMAT + "%02X%-12s" + labelFormat + " %s" + strArgFormat + "\n",
-				instruction.offset(), instruction.opcode(), hexOperands, label, mnemonic, strOperands);
+		int[] operands = type != InstructionSet.Type.LOOKUPSWITCH && type != InstructionSet.Type.TABLESWITCH
+				? instruction.operands() : new int[0];
+		instruction(instruction, operands, label, mnemonic, strOperands);
+	}
+
+	/**
+	 * Prints the padding and the values of a switch, the first byte is data and not an opcode.
+	 */
+	public void switchData(Instruction data, String description) {
+		instruction(data, data.operands(), "", description, "");
+	}
+
+	private void instruction(Instruction instruction, int[] operands, String label, String mnemonic,
+	                         String strOperands) {
+		offset(instruction.offset()).hex(instruction.opcode(), 2);
+		for (int operand : operands) {
+			out.append(' ').hex(operand, 2);
+		}
+		int hexOperandsLength = operands.length * 3;
+		out.spaces(12 - hexOperandsLength);
+		if (hexOperandsLength < 15) {
+			out.spaces(1 + 8 - label.length());
+		}
+		out.append(label).append(' ').append(mnemonic);
+		if (!strOperands.isEmpty()) {
+			out.append(' ').append(strOperands);
+		}
+		out.newLine();
 	}
 
 	public void incIndent() {
@@ -0,0 +1,53 @@
+package com.example.jcparser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Growable byte array reused to read one class file at a time. The returned buffer is valid until the next read.
+ */
+public final class ReadBuffer {
+	private byte[] bytes = new byte[0x10000];
+
+	public ByteBuffer read(InputStream is, long size) throws IOException {
+		if (size > bytes.length) {
+			bytes = new byte[(int) size];
+		}
+		int length = 0;
+		int n;
+		while ((n = is.read(bytes, length, bytes.length - length)) != -1) {
+			length += n;
+			if (length == bytes.length) {
+				bytes = Arrays.copyOf(bytes, bytes.length * 2);
+			}
+		}
+		return ByteBuffer.wrap(bytes, 0, length).slice();
+	}
+
+	/**
+	 * Reads the whole file, a class file is too small to be worth a memory mapping of its own.
+	 */
+	public ByteBuffer read(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("File is too large: " + path);
+			}
+			if (size > bytes.length) {
+				bytes = new byte[(int) size];
+			}
+			ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, (int) size);
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer) == -1) {
+					break;
+				}
+			}
+			return ByteBuffer.wrap(bytes, 0, buffer.position()).slice();
+		}
+	}
+}
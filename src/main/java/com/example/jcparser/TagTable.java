@@ -0,0 +1,37 @@
+package com.example.jcparser;
+
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Dense lookup table from a one-byte tag of the class file to the enum constant it stands for.
+ * The lookup is a single array read and allocates nothing unless the tag is unknown.
+ */
+public final class TagTable<E> {
+	private static final int SIZE = 256;
+	private final Object[] table = new Object[SIZE];
+	private final IntFunction<String> unknownTagMessage;
+
+	/**
+	 * @param values            all enum constants
+	 * @param tags              the tags of a constant
+	 * @param unknownTagMessage message of the {@link IllegalArgumentException} thrown for an unknown tag
+	 */
+	public TagTable(E[] values, Function<E, int[]> tags, IntFunction<String> unknownTagMessage) {
+		this.unknownTagMessage = unknownTagMessage;
+		for (E value : values) {
+			for (int tag : tags.apply(value)) {
+				table[tag] = value;
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	public E get(int tag) {
+		Object value = tag >= 0 && tag < SIZE ? table[tag] : null;
+		if (value == null) {
+			throw new IllegalArgumentException(unknownTagMessage.apply(tag));
+		}
+		return (E) value;
+	}
+}
@@ -26,7 +26,7 @@ public class BootstrapMethodsAttribute extends Attribute {
 	}
 
 	public BootstrapMethod[] getBootstrapMethods() {
-		return bootstrapMethods;
+		return bootstrapMethods.clone();
 	}
 
 	public record BootstrapMethod(int index, U2 bootstrapMethodRef, U2Array bootstrapArguments)
@@ -25,7 +25,7 @@ public class InnerClassesAttribute extends Attribute {
 	}
 
 	public InnerClass[] getInnerClasses() {
-		return innerClasses;
+		return innerClasses.clone();
 	}
 
 	public record InnerClass(int index, U2 innerClassInfoIndex, U2 outerClassInfoIndex, U2 innerNameIndex,
@@ -19,7 +19,7 @@ public class LineNumberTableAttribute extends Attribute {
 	}
 
 	public LineNumber[] getLineNumberTable() {
-		return lineNumberTable;
+		return lineNumberTable.clone();
 	}
 
 	@Override
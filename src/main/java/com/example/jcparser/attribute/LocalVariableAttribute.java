@@ -19,7 +19,7 @@ public class LocalVariableAttribute extends Attribute {
 	}
 
 	public LocalVariable[] getLocalVariables() {
-		return localVariables;
+		return localVariables.clone();
 	}
 
 	public record LocalVariable(U2 startPC, U2 length, U2 nameIndex, U2 descriptorIndex, U2 index,
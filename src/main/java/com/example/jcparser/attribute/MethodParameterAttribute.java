@@ -28,7 +28,7 @@ public class MethodParameterAttribute extends Attribute {
 	}
 
 	public MethodParameter[] getMethodParameters() {
-		return methodParameters;
+		return methodParameters.clone();
 	}
 
 	public record MethodParameter(int index, U2 nameIndex, U2 accessFlag)
@@ -60,7 +60,7 @@ public class ModuleAttribute extends Attribute {
 	}
 
 	public Requires[] getRequires() {
-		return requires;
+		return requires.clone();
 	}
 
 	public U2 getExportsCount() {
@@ -68,7 +68,7 @@ public class ModuleAttribute extends Attribute {
 	}
 
 	public Exports[] getExports() {
-		return exports;
+		return exports.clone();
 	}
 
 	public U2 getOpensCount() {
@@ -76,7 +76,7 @@ public class ModuleAttribute extends Attribute {
 	}
 
 	public Opens[] getOpens() {
-		return opens;
+		return opens.clone();
 	}
 
 	public U2Array getUses() {
@@ -88,7 +88,7 @@ public class ModuleAttribute extends Attribute {
 	}
 
 	public Provides[] getProvides() {
-		return provides;
+		return provides.clone();
 	}
 
 	public record Requires(int index, U2 requiresIndex, U2 accessFlag, U2 requiresVersionIndex)
@@ -26,7 +26,7 @@ public class RecordAttribute extends Attribute {
 	}
 
 	public ComponentInfo[] getComponents() {
-		return components;
+		return components.clone();
 	}
 
 	public record ComponentInfo(U2 nameIndex, U2 descriptorIndex, U2 numberOf, List<Attribute> attributes) {
@@ -10,6 +10,14 @@ public record ElementValue(U1 tag, U2 u2First, U2 u2Second,
                            ElementValue[] elementValues)
 		implements Print.Printable<AttributePrinter> {
 
+	/**
+	 * @return a copy of the values of an array, null for the other tags
+	 */
+	@Override
+	public ElementValue[] elementValues() {
+		return elementValues == null ? null : elementValues.clone();
+	}
+
 	@Override
 	public void print(AttributePrinter printer) {
 		printer.print(this);
@@ -7,6 +7,11 @@ import com.example.jcparser.attribute.AttributePrinter;
 public record ParameterAnnotation(U2 numberOf, RuntimeAnnotationsAttribute.Annotation[] annotations, boolean visible)
 		implements Print.Printable<AttributePrinter> {
 
+	@Override
+	public RuntimeAnnotationsAttribute.Annotation[] annotations() {
+		return annotations.clone();
+	}
+
 	@Override
 	public void print(AttributePrinter printer) {
 		printer.print(this);
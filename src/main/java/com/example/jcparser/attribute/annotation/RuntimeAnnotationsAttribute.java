@@ -23,7 +23,7 @@ public class RuntimeAnnotationsAttribute extends Attribute {
 	}
 
 	public Annotation[] getAnnotations() {
-		return annotations;
+		return annotations.clone();
 	}
 
 	public boolean isVisible() {
@@ -40,6 +40,11 @@ public class RuntimeAnnotationsAttribute extends Attribute {
 	public record Annotation(U2 typeIndex, U2 lengthOfPair, ValuePair[] valuePairs)
 			implements Print.Printable<AttributePrinter> {
 
+		@Override
+		public ValuePair[] valuePairs() {
+			return valuePairs.clone();
+		}
+
 		@Override
 		public void print(AttributePrinter printer) {
 			printer.print(this);
@@ -24,7 +24,7 @@ public class RuntimeParameterAnnotationsAttribute extends Attribute {
 	}
 
 	public ParameterAnnotation[] getParameterAnnotations() {
-		return parameterAnnotations;
+		return parameterAnnotations.clone();
 	}
 
 	public boolean isVisible() {
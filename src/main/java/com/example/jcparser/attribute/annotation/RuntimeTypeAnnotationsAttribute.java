@@ -4,11 +4,10 @@ import com.example.jcparser.Parser.U1;
 import com.example.jcparser.Parser.U2;
 import com.example.jcparser.Parser.U4;
 import com.example.jcparser.Print;
+import com.example.jcparser.TagTable;
 import com.example.jcparser.attribute.Attribute;
 import com.example.jcparser.attribute.AttributePrinter;
 
-import java.util.Arrays;
-
 public class RuntimeTypeAnnotationsAttribute extends Attribute {
 	private final U2 numberOf;
 	private final TypeAnnotation[] typeAnnotations;
@@ -33,7 +32,7 @@ public class RuntimeTypeAnnotationsAttribute extends Attribute {
 	}
 
 	public TypeAnnotation[] getTypeAnnotations() {
-		return typeAnnotations;
+		return typeAnnotations.clone();
 	}
 
 	public boolean isVisible() {
@@ -44,6 +43,11 @@ public class RuntimeTypeAnnotationsAttribute extends Attribute {
 	                             RuntimeAnnotationsAttribute.Annotation annotation)
 			implements Print.Printable<AttributePrinter> {
 
+		@Override
+		public TypePath[] typePath() {
+			return typePath.clone();
+		}
+
 		@Override
 		public void print(AttributePrinter printer) {
 			printer.print(this);
@@ -184,7 +188,7 @@ public class RuntimeTypeAnnotationsAttribute extends Attribute {
 		}
 
 		public TableEntry[] getTable() {
-			return table;
+			return table.clone();
 		}
 	}
 
@@ -276,6 +280,8 @@ public class RuntimeTypeAnnotationsAttribute extends Attribute {
 		OFFSET_TARGET(0x43, 0x44, 0x45, 0x46),
 		TYPE_ARGUMENT_TARGET(0x47, 0x48, 0x49, 0x4A, 0x4B);
 
+		private static final TagTable<TypeTargetInfo> TAGS = new TagTable<>(values(), v -> v.targetTypes,
+				targetType -> "Wrong targetType : " + Integer.toHexString(targetType).toUpperCase());
 		private final int[] targetTypes;
 
 		TypeTargetInfo(int... targetTypes) {
@@ -283,9 +289,7 @@ public class RuntimeTypeAnnotationsAttribute extends Attribute {
 		}
 
 		public static TypeTargetInfo getType(int targetType) {
-			return Arrays.stream(values()).filter(v -> Arrays.stream(v.targetTypes).anyMatch(tt -> tt == targetType))
-					.findFirst().orElseThrow(() -> new IllegalArgumentException(
-							"Wrong targetType : " + Integer.toHexString(targetType).toUpperCase()));
+			return TAGS.get(targetType);
 		}
 	}
 }
@@ -1,6 +1,6 @@
 package com.example.jcparser.attribute.annotation;
 
-import java.util.Arrays;
+import com.example.jcparser.TagTable;
 
 public enum TagValueItem {
 	CONST_VALUE_INDEX('B', 'C', 'D', 'F', 'I', 'J', 'S', 'Z', 's'),
@@ -9,6 +9,8 @@ public enum TagValueItem {
 	ANNOTATION_VALUE('@'),
 	ARRAY_VALUE('[');
 
+	private static final TagTable<TagValueItem> TAGS = new TagTable<>(values(), v -> v.tags,
+			tag -> "Unknown tag: " + tag);
 	final int[] tags;
 
 	TagValueItem(int... tags) {
@@ -16,7 +18,6 @@ public enum TagValueItem {
 	}
 
 	public static TagValueItem getTagValue(int tag) {
-		return Arrays.stream(values()).filter(v -> Arrays.stream(v.tags).anyMatch(e -> tag == e))
-				.findFirst().orElseThrow(() -> new IllegalArgumentException("Unknown tag: " + tag));
+		return TAGS.get(tag);
 	}
 }
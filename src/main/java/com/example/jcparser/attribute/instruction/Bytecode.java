@@ -0,0 +1,132 @@
+package com.example.jcparser.attribute.instruction;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.Arrays;
+
+/**
+ * <a href="https://docs.oracle.com/javase/specs/jvms/se17/html/jvms-4.html#jvms-4.7.3">4.7.3. The Code Attribute</a>
+ * <p>
+ * Packed code array: the raw code bytes and the start of every instruction. Opcodes and operands are read from
+ * the bytes on demand, an {@link Instruction} is only created when it is requested as a list element.
+ */
+public final class Bytecode extends AbstractList<Instruction> {
+	private final ByteBuffer code;
+	private final int codeOffset;
+	private final int[] starts;
+
+	private Bytecode(ByteBuffer code, int codeOffset, int[] starts) {
+		this.code = code;
+		this.codeOffset = codeOffset;
+		this.starts = starts;
+	}
+
+	/**
+	 * Records the instructions of {@code codeLength} bytes starting at the buffer position
+	 * and leaves the position right after the code.
+	 */
+	public static Bytecode read(ByteBuffer buffer, int codeLength) {
+		int codeOffset = buffer.position();
+		Bytecode bytecode = of(buffer.slice(codeOffset, codeLength), codeOffset);
+		buffer.position(codeOffset + codeLength);
+		return bytecode;
+	}
+
+	/**
+	 * @param code       the code bytes only, from position 0 to the limit
+	 * @param codeOffset offset of the first code byte in the class file
+	 */
+	public static Bytecode of(ByteBuffer code, int codeOffset) {
+		int codeLength = code.limit();
+		int[] starts = new int[codeLength];
+		int count = 0;
+		int pc = 0;
+		while (pc < codeLength) {
+			starts[count++] = pc;
+			pc += getLength(code, pc);
+		}
+		return new Bytecode(code, codeOffset, Arrays.copyOf(starts, count));
+	}
+
+	private static int getLength(ByteBuffer code, int pc) {
+		int opcode = Byte.toUnsignedInt(code.get(pc));
+		if (opcode == InstructionSet.WIDE.getOpcode()) {
+			return Byte.toUnsignedInt(code.get(pc + 1)) == InstructionSet.IINC.getOpcode() ? 6 : 4;
+		}
+		if (opcode == InstructionSet.TABLESWITCH.getOpcode()) {
+			int table = pc + 1 + Instruction.getFirstBytePadding(pc, 0) + Integer.BYTES;
+			int low = code.getInt(table);
+			int high = code.getInt(table + Integer.BYTES);
+			return table - pc + 2 * Integer.BYTES + (high - low + 1) * Integer.BYTES;
+		}
+		if (opcode == InstructionSet.LOOKUPSWITCH.getOpcode()) {
+			int pairs = pc + 1 + Instruction.getFirstBytePadding(pc, 0) + Integer.BYTES;
+			int nPairs = code.getInt(pairs);
+			return pairs - pc + Integer.BYTES + nPairs * 2 * Integer.BYTES;
+		}
+		return 1 + InstructionSet.getOperandsSize(opcode);
+	}
+
+	@Override
+	public int size() {
+		return starts.length;
+	}
+
+	/**
+	 * @return offset of the instruction in the class file
+	 */
+	public int getOffset(int index) {
+		return codeOffset + starts[index];
+	}
+
+	public int getOpcode(int index) {
+		return Byte.toUnsignedInt(code.get(starts[index]));
+	}
+
+	/**
+	 * @return count of the operand bytes, padding of the switches included
+	 */
+	public int getOperandsLength(int index) {
+		int end = index + 1 < starts.length ? starts[index + 1] : code.limit();
+		return end - starts[index] - 1;
+	}
+
+	/**
+	 * @return unsigned operand byte, {@code operand} counts from the byte right after the opcode
+	 */
+	public int getOperand(int index, int operand) {
+		return Byte.toUnsignedInt(code.get(starts[index] + 1 + operand));
+	}
+
+	/**
+	 * @return unsigned two-byte operand, like a constant pool index
+	 */
+	public int getU2Operand(int index, int operand) {
+		return Short.toUnsignedInt(code.getShort(starts[index] + 1 + operand));
+	}
+
+	/**
+	 * @return signed four-byte operand, like a switch offset
+	 */
+	public int getIntOperand(int index, int operand) {
+		return code.getInt(starts[index] + 1 + operand);
+	}
+
+	/**
+	 * @return copy of the code bytes
+	 */
+	public byte[] toByteArray() {
+		byte[] bytes = new byte[code.limit()];
+		code.get(0, bytes);
+		return bytes;
+	}
+
+	@Override
+	public Instruction get(int index) {
+		int[] operands = new int[getOperandsLength(index)];
+		for (int i = 0; i < operands.length; i++) {
+			operands[i] = getOperand(index, i);
+		}
+		return new Instruction(getOffset(index), getOpcode(index), operands);
+	}
+}
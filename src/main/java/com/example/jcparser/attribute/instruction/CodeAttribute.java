@@ -12,20 +12,20 @@ public class CodeAttribute extends Attribute {
 	private final U2 maxStack;
 	private final U2 maxLocals;
 	private final U4 codeLength;
-	private final List<Instruction> instructions;
+	private final Bytecode bytecode;
 	private final U2 exceptionTableLength;
 	private final ExceptionsAttribute.Exception[] exceptions;
 	private final U2 numberOf;
 	private final List<Attribute> attributes;
 
-	public CodeAttribute(U2 nameIndex, U4 length, U2 maxStack, U2 maxLocals, U4 codeLength, List<Instruction> instructions,
+	public CodeAttribute(U2 nameIndex, U4 length, U2 maxStack, U2 maxLocals, U4 codeLength, Bytecode bytecode,
 	                     U2 exceptionTableLength, ExceptionsAttribute.Exception[] exceptions, U2 numberOf,
 	                     List<Attribute> attributes) {
 		super(nameIndex, length);
 		this.maxStack = maxStack;
 		this.maxLocals = maxLocals;
 		this.codeLength = codeLength;
-		this.instructions = instructions;
+		this.bytecode = bytecode;
 		this.exceptionTableLength = exceptionTableLength;
 		this.exceptions = exceptions;
 		this.numberOf = numberOf;
@@ -50,8 +50,12 @@ public class CodeAttribute extends Attribute {
 		return codeLength;
 	}
 
+	public Bytecode getBytecode() {
+		return bytecode;
+	}
+
 	public List<Instruction> getInstructions() {
-		return instructions;
+		return bytecode;
 	}
 
 	public U2 getExceptionTableLength() {
@@ -59,7 +63,7 @@ public class CodeAttribute extends Attribute {
 	}
 
 	public ExceptionsAttribute.Exception[] getExceptions() {
-		return exceptions;
+		return exceptions.clone();
 	}
 
 	public U2 getNumberOf() {
@@ -41,7 +41,7 @@ public class InstructionPrinter {
 			String lineNumber = getLineNumber(instruction, attr);
 			print.instruction(instruction, lineNumber, mnemonic, strOperands);
 			for (InstructionUI addInstruction : additionalInstructions) {
-				print.instruction(addInstruction.instruction, "", addInstruction.description, "");
+				print.switchData(addInstruction.instruction, addInstruction.description);
 			}
 			additionalInstructions.clear();
 		}
@@ -115,7 +115,7 @@ public class InstructionPrinter {
 	}
 
 	private String getLineNumber(Instruction instruction, CodeAttribute attr) {
-		String lineNumber = null;
+		String lineNumber = "";
 		for (Attribute attribute : attr.getAttributes()) {
 			if (attribute instanceof LineNumberTableAttribute lineNumberTableAttr) {
 				int startPC = attr.getCodeLength().getOffset() + U4.BYTES;
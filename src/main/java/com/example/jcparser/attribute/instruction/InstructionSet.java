@@ -1,7 +1,5 @@
 package com.example.jcparser.attribute.instruction;
 
-import java.util.Arrays;
-
 public enum InstructionSet {
 	AALOAD("aaload", 0x32),                     // 		arrayref, index → value 	load onto the stack a reference from an array
 	AASTORE("aastore", 0x53),                   // 		arrayref, index, value → 	store a reference in an array
@@ -209,6 +207,19 @@ public enum InstructionSet {
 	TABLESWITCH("tableswitch", 0xAA, 16),       // 	16+: [0–3 bytes padding], defaultbyte1, defaultbyte2, defaultbyte3, defaultbyte4, lowbyte1, lowbyte2, lowbyte3, lowbyte4, highbyte1, highbyte2, highbyte3, highbyte4, jump offsets... 	index → 	continue execution from an address in the table at offset index
 	WIDE("wide", 0xC4, 3);                      // 	3/5: opcode, indexbyte1, indexbyte2 or iinc, indexbyte1, indexbyte2, countbyte1, countbyte2 	[same as for corresponding instructions] 	execute opcode, where opcode is either iload, fload, aload, lload, dload, istore, fstore, astore, lstore, dstore, or ret, but assume the index is 16 bit; or execute iinc, where the index is 16 bits and the constant to increment by is a signed 16 bit short
 
+	private static final int OPCODES = 256;
+	private static final InstructionSet[] INSTRUCTIONS = new InstructionSet[OPCODES];
+	private static final int[] OPERANDS_SIZES = new int[OPCODES];
+	private static final Type[] OPERANDS_TYPES = new Type[OPCODES];
+
+	static {
+		for (InstructionSet instruction : values()) {
+			INSTRUCTIONS[instruction.opcode] = instruction;
+			OPERANDS_SIZES[instruction.opcode] = instruction.argumentsSize;
+			OPERANDS_TYPES[instruction.opcode] = getType(instruction);
+		}
+	}
+
 	private final String mnemonic;
 	private final int opcode;
 	private int argumentsSize = 0;
@@ -232,17 +243,26 @@ public enum InstructionSet {
 	}
 
 	public static InstructionSet getInstruction(int opcode) {
-		return Arrays.stream(values()).filter(v -> v.opcode == opcode).findFirst().orElseThrow(() ->
-				new IllegalArgumentException("Unknown opcode: " + Integer.toHexString(opcode).toUpperCase()));
+		return INSTRUCTIONS[checkOpcode(opcode)];
 	}
 
 	public static int getOperandsSize(int code) {
-		return getInstruction(code).argumentsSize;
+		return OPERANDS_SIZES[checkOpcode(code)];
 	}
 
 	public static Type getOperandsType(int code) {
-		Type type;
-		type = switch (getInstruction(code)) {
+		return OPERANDS_TYPES[checkOpcode(code)];
+	}
+
+	private static int checkOpcode(int opcode) {
+		if (opcode < 0 || opcode >= OPCODES || INSTRUCTIONS[opcode] == null) {
+			throw new IllegalArgumentException("Unknown opcode: " + Integer.toHexString(opcode).toUpperCase());
+		}
+		return opcode;
+	}
+
+	private static Type getType(InstructionSet instruction) {
+		return switch (instruction) {
 			case ANEWARRAY, CHECKCAST, GETFIELD, GETSTATIC, INSTANCEOF, INVOKEDYNAMIC, INVOKESPECIAL, INVOKESTATIC,
 			     INVOKEVIRTUAL, LDC_W, LDC2_W, NEW, PUTFIELD, PUTSTATIC -> Type.CP_IDX;
 			case INVOKEINTERFACE, MULTIANEWARRAY -> Type.CP_IDX_COUNT;
@@ -262,7 +282,6 @@ public enum InstructionSet {
 			case WIDE -> Type.WIDE;
 			default -> Type.NOP;
 		};
-		return type;
 	}
 
 	public enum Type {
@@ -18,7 +18,7 @@ public final class AppendStackMapFrame extends StackMapFrame {
 	}
 
 	public TypeInfo[] getStack() {
-		return stack;
+		return stack.clone();
 	}
 
 	@Override
@@ -1,6 +1,8 @@
 package com.example.jcparser.attribute.stackmapframe;
 
-import java.util.Arrays;
+import com.example.jcparser.TagTable;
+
+import java.util.stream.IntStream;
 
 public enum FrameType {
 	SAME(0, 63),
@@ -11,6 +13,8 @@ public enum FrameType {
 	APPEND(252, 254),
 	FULL_FRAME(255, 255);
 
+	private static final TagTable<FrameType> TAGS = new TagTable<>(values(),
+			v -> IntStream.rangeClosed(v.min, v.max).toArray(), tag -> "Reserved frame type tag (128-246): " + tag);
 	private final int min;
 	private final int max;
 
@@ -20,7 +24,6 @@ public enum FrameType {
 	}
 
 	public static FrameType getType(int tag) {
-		return Arrays.stream(values()).filter(v -> v.min <= tag && tag <= v.max).findFirst().orElseThrow(() ->
-				new IllegalArgumentException("Reserved frame type tag (128-246): " + tag));
+		return TAGS.get(tag);
 	}
 }
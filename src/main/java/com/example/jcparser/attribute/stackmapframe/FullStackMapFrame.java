@@ -28,7 +28,7 @@ public final class FullStackMapFrame extends StackMapFrame {
 	}
 
 	public TypeInfo[] getLocals() {
-		return locals;
+		return locals.clone();
 	}
 
 	public U2 getNumberOfStack() {
@@ -36,7 +36,7 @@ public final class FullStackMapFrame extends StackMapFrame {
 	}
 
 	public TypeInfo[] getStack() {
-		return stack;
+		return stack.clone();
 	}
 
 	@Override
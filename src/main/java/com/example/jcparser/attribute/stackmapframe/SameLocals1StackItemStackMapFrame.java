@@ -11,7 +11,7 @@ public final class SameLocals1StackItemStackMapFrame extends StackMapFrame {
 	}
 
 	public TypeInfo[] getStack() {
-		return stack;
+		return stack.clone();
 	}
 
 	@Override
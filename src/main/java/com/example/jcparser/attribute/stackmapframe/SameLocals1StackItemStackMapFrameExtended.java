@@ -18,7 +18,7 @@ public final class SameLocals1StackItemStackMapFrameExtended extends StackMapFra
 	}
 
 	public TypeInfo[] getStack() {
-		return stack;
+		return stack.clone();
 	}
 
 	@Override
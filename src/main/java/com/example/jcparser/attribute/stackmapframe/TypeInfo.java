@@ -3,7 +3,7 @@ package com.example.jcparser.attribute.stackmapframe;
 import com.example.jcparser.Parser.U1;
 import com.example.jcparser.Parser.U2;
 
-import java.util.Arrays;
+import com.example.jcparser.TagTable;
 
 public record TypeInfo(U1 tag, U2 typeInfoAdditional) {
 	public enum Type {
@@ -17,6 +17,8 @@ public record TypeInfo(U1 tag, U2 typeInfoAdditional) {
 		ITEM_Object(7),
 		ITEM_Uninitialized(8);
 
+		private static final TagTable<Type> TAGS = new TagTable<>(values(), t -> new int[]{t.tag},
+				tag -> "Unknown type info tag: " + tag);
 		private final int tag;
 
 		Type(int tag) {
@@ -24,8 +26,7 @@ public record TypeInfo(U1 tag, U2 typeInfoAdditional) {
 		}
 
 		public static Type getTagType(int tag) {
-			return Arrays.stream(values()).filter(t -> tag == t.tag).findFirst()
-					.orElseThrow(() -> new IllegalArgumentException("Unknown type info tag: " + tag));
+			return TAGS.get(tag);
 		}
 	}
 }
@@ -3,17 +3,31 @@ package com.example.jcparser.constantpool;
 import org.apache.commons.text.StringEscapeUtils;
 
 public final class ConstantPoolUtf8 extends ConstantPoolEntry {
-	private final String utf8;
+	private final String value;
+	private String utf8;
 
-	public ConstantPoolUtf8(int offset, int idx, ConstantTag constantTag, String utf8) {
+	public ConstantPoolUtf8(int offset, int idx, ConstantTag constantTag, String value) {
 		super(offset, idx, constantTag);
-		this.utf8 = StringEscapeUtils.escapeJava(utf8);
+		this.value = value;
 	}
 
+	/**
+	 * @return the string escaped like a Java literal, as printed in the dump
+	 */
 	public String getUtf8() {
+		if (utf8 == null) {
+			utf8 = StringEscapeUtils.escapeJava(value);
+		}
 		return utf8;
 	}
 
+	/**
+	 * @return the decoded string, not escaped
+	 */
+	public String getValue() {
+		return value;
+	}
+
 	@Override
 	public void format(ConstantFormater formater) {
 		super.format(formater);
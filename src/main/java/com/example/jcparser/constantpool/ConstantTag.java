@@ -1,6 +1,6 @@
 package com.example.jcparser.constantpool;
 
-import java.util.Arrays;
+import com.example.jcparser.TagTable;
 
 public enum ConstantTag {
 
@@ -22,12 +22,18 @@ public enum ConstantTag {
 	CONSTANT_Module(19),             //19 53.0	9
 	CONSTANT_Package(20);            //20 53.0	9
 
+	private static final TagTable<ConstantTag> TAGS = new TagTable<>(values(), v -> new int[]{v.tag},
+			tag -> "Unknown constant tag: " + tag);
 	private final int tag;
 
 	ConstantTag(int tag) {
 		this.tag = tag;
 	}
 
+	public int getTag() {
+		return tag;
+	}
+
 	public boolean isConstantClass() {
 		return this == CONSTANT_Class;
 	}
@@ -37,7 +43,6 @@ public enum ConstantTag {
 	}
 
 	public static ConstantTag getConstant(int tag) {
-		return Arrays.stream(values()).filter(v -> v.tag == tag).findFirst().orElseThrow(() ->
-				new IllegalArgumentException("Unknown constant tag: " + tag));
+		return TAGS.get(tag);
 	}
 }
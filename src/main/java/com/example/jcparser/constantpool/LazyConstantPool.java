@@ -0,0 +1,124 @@
+package com.example.jcparser.constantpool;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+
+/**
+ * Constant pool that only records the tag and the offset of every entry while the class file is read.
+ * An entry is decoded from the buffer the first time it is requested and is cached afterwards.
+ * Index 0 and the second slot of long and double entries are null, like in the eagerly read pool.
+ */
+public class LazyConstantPool extends AbstractList<ConstantPoolEntry> {
+	private final ByteBuffer buffer;
+	private final int[] offsets;
+	private final byte[] tags;
+	private final ConstantPoolEntry[] entries;
+
+	/**
+	 * Records the entries starting at the buffer position and leaves the position right after the constant pool.
+	 */
+	public LazyConstantPool(ByteBuffer buffer, int constantPoolCount) {
+		this.buffer = buffer;
+		offsets = new int[constantPoolCount];
+		tags = new byte[constantPoolCount];
+		entries = new ConstantPoolEntry[constantPoolCount];
+		int offset = buffer.position();
+		for (int i = 1; i < constantPoolCount; i++) {
+			ConstantTag constantTag = ConstantTag.getConstant(Byte.toUnsignedInt(buffer.get(offset)));
+			offsets[i] = offset;
+			tags[i] = (byte) constantTag.getTag();
+			offset += getEntrySize(buffer, offset);
+			if (constantTag.isTwoEntriesTakeUp()) {
+				i++;
+			}
+		}
+		buffer.position(offset);
+	}
+
+	@Override
+	public ConstantPoolEntry get(int index) {
+		if (offsets[index] == 0) {
+			return null;
+		}
+		ConstantPoolEntry entry = entries[index];
+		if (entry == null) {
+			entry = createEntry(buffer, offsets[index], index);
+			entries[index] = entry;
+		}
+		return entry;
+	}
+
+	/**
+	 * @return the tag of the entry without decoding it, null for the unused slots
+	 */
+	public ConstantTag getConstantTag(int index) {
+		return offsets[index] == 0 ? null : ConstantTag.getConstant(tags[index]);
+	}
+
+	public int getOffset(int index) {
+		return offsets[index];
+	}
+
+	/**
+	 * @return the class file the offsets point into, to read the raw bytes of an entry without decoding it
+	 */
+	public ByteBuffer getBuffer() {
+		return buffer.asReadOnlyBuffer();
+	}
+
+	@Override
+	public int size() {
+		return offsets.length;
+	}
+
+	/**
+	 * @return size in bytes of the entry at the offset, tag included
+	 */
+	public static int getEntrySize(ByteBuffer buffer, int offset) {
+		return switch (ConstantTag.getConstant(Byte.toUnsignedInt(buffer.get(offset)))) {
+			case CONSTANT_Utf8 -> 1 + Short.BYTES + Short.toUnsignedInt(buffer.getShort(offset + 1));
+			case CONSTANT_Integer, CONSTANT_Float -> 1 + Integer.BYTES;
+			case CONSTANT_Long, CONSTANT_Double -> 1 + Long.BYTES;
+			case CONSTANT_Class, CONSTANT_String, CONSTANT_MethodType, CONSTANT_Module, CONSTANT_Package -> 1 + Short.BYTES;
+			case CONSTANT_Fieldref, CONSTANT_Methodref, CONSTANT_InterfaceMethodref, CONSTANT_NameAndType,
+			     CONSTANT_Dynamic, CONSTANT_InvokeDynamic -> 1 + 2 * Short.BYTES;
+			case CONSTANT_MethodHandle -> 1 + 1 + Short.BYTES;
+		};
+	}
+
+	/**
+	 * <a href="https://docs.oracle.com/javase/specs/jvms/se17/html/jvms-4.html#jvms-4.4">4.4. The Constant Pool</a>
+	 * <p>
+	 * Decodes the entry at the offset using absolute reads, the buffer position is not changed.
+	 */
+	public static ConstantPoolEntry createEntry(ByteBuffer buffer, int offset, int idx) {
+		ConstantTag constantTag = ConstantTag.getConstant(Byte.toUnsignedInt(buffer.get(offset)));
+		int data = offset + 1;
+
+		return switch (constantTag) {
+			case CONSTANT_Utf8 -> {
+				int length = Short.toUnsignedInt(buffer.getShort(data));
+				String utf8 = ModifiedUtf8.decode(buffer, data + Short.BYTES, length);
+				yield new ConstantPoolUtf8(offset, idx, constantTag, utf8);
+			}
+			case CONSTANT_Integer -> new ConstantPoolInteger(offset, idx, constantTag, buffer.getInt(data));
+			case CONSTANT_Float -> new ConstantPoolFloat(offset, idx, constantTag, buffer.getFloat(data));
+			case CONSTANT_Long -> new ConstantPoolLong(offset, idx, constantTag, buffer.getLong(data));
+			case CONSTANT_Double -> new ConstantPoolDouble(offset, idx, constantTag, buffer.getDouble(data));
+			case CONSTANT_Class, CONSTANT_String, CONSTANT_MethodType, CONSTANT_Module, CONSTANT_Package ->
+					new ConstantPoolString(offset, idx, constantTag, getU2(buffer, data));
+			case CONSTANT_Fieldref, CONSTANT_Methodref, CONSTANT_InterfaceMethodref ->
+					new ConstantPoolMethodRef(offset, idx, constantTag, getU2(buffer, data), getU2(buffer, data + 2));
+			case CONSTANT_NameAndType ->
+					new ConstantPoolNameAndType(offset, idx, constantTag, getU2(buffer, data), getU2(buffer, data + 2));
+			case CONSTANT_Dynamic, CONSTANT_InvokeDynamic ->
+					new ConstantPoolDynamic(offset, idx, constantTag, getU2(buffer, data), getU2(buffer, data + 2));
+			case CONSTANT_MethodHandle -> new ConstantPoolMethodHandle(offset, idx, constantTag,
+					Byte.toUnsignedInt(buffer.get(data)), getU2(buffer, data + 1));
+		};
+	}
+
+	private static int getU2(ByteBuffer buffer, int offset) {
+		return Short.toUnsignedInt(buffer.getShort(offset));
+	}
+}
@@ -0,0 +1,106 @@
+package com.example.jcparser.constantpool;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <a href="https://docs.oracle.com/javase/specs/jvms/se17/html/jvms-4.html#jvms-4.4.7">4.4.7. The CONSTANT_Utf8_info Structure</a>
+ * <p>
+ * Decoder of the modified UTF-8: the null character is encoded in two bytes and supplementary characters are
+ * encoded as their two surrogates, three bytes each. Strings of ASCII characters only are copied directly.
+ */
+public final class ModifiedUtf8 {
+
+	private ModifiedUtf8() {
+	}
+
+	/**
+	 * Decodes {@code length} bytes starting at the offset, the buffer position is not changed.
+	 */
+	public static String decode(ByteBuffer buffer, int offset, int length) {
+		int end = offset + length;
+		int i = offset;
+		while (i < end && buffer.get(i) > 0) {
+			i++;
+		}
+		if (i == end) {
+			return ascii(buffer, offset, length);
+		}
+		char[] chars = new char[length];
+		int count = 0;
+		for (int j = offset; j < i; j++) {
+			chars[count++] = (char) buffer.get(j);
+		}
+		while (i < end) {
+			int b = buffer.get(i) & 0xFF;
+			if (b > 0 && b < 0x80) {
+				chars[count++] = (char) b;
+				i++;
+			} else if ((b & 0xE0) == 0xC0) {
+				int b2 = getContinuation(buffer, i, 1, end);
+				chars[count++] = (char) ((b & 0x1F) << 6 | b2);
+				i += 2;
+			} else if ((b & 0xF0) == 0xE0) {
+				int b2 = getContinuation(buffer, i, 1, end);
+				int b3 = getContinuation(buffer, i, 2, end);
+				chars[count++] = (char) ((b & 0x0F) << 12 | b2 << 6 | b3);
+				i += 3;
+			} else {
+				throw malformed(i);
+			}
+		}
+		return new String(chars, 0, count);
+	}
+
+	/**
+	 * Encodes the string like {@link java.io.DataOutputStream#writeUTF(String)} without the length,
+	 * so any string, a lone surrogate included, is decoded back unchanged.
+	 */
+	public static byte[] encode(String string) {
+		int length = 0;
+		for (int i = 0; i < string.length(); i++) {
+			char c = string.charAt(i);
+			length += c > 0 && c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+		}
+		byte[] bytes = new byte[length];
+		int count = 0;
+		for (int i = 0; i < string.length(); i++) {
+			char c = string.charAt(i);
+			if (c > 0 && c < 0x80) {
+				bytes[count++] = (byte) c;
+			} else if (c < 0x800) {
+				bytes[count++] = (byte) (0xC0 | c >> 6);
+				bytes[count++] = (byte) (0x80 | c & 0x3F);
+			} else {
+				bytes[count++] = (byte) (0xE0 | c >> 12);
+				bytes[count++] = (byte) (0x80 | c >> 6 & 0x3F);
+				bytes[count++] = (byte) (0x80 | c & 0x3F);
+			}
+		}
+		return bytes;
+	}
+
+	private static String ascii(ByteBuffer buffer, int offset, int length) {
+		if (buffer.hasArray()) {
+			return new String(buffer.array(), buffer.arrayOffset() + offset, length, StandardCharsets.ISO_8859_1);
+		}
+		byte[] bytes = new byte[length];
+		buffer.get(offset, bytes);
+		return new String(bytes, StandardCharsets.ISO_8859_1);
+	}
+
+	private static int getContinuation(ByteBuffer buffer, int start, int index, int end) {
+		if (start + index >= end) {
+			throw malformed(start);
+		}
+		int b = buffer.get(start + index) & 0xFF;
+		if ((b & 0xC0) != 0x80) {
+			throw malformed(start);
+		}
+		return b & 0x3F;
+	}
+
+	private static IllegalArgumentException malformed(int offset) {
+		return new IllegalArgumentException(String.format("Malformed modified UTF-8 at %04X", offset));
+	}
+}
@@ -0,0 +1,148 @@
+package com.example.jcparser.index;
+
+import com.example.jcparser.ClassFileVisitor;
+import com.example.jcparser.Parser.U2;
+import com.example.jcparser.attribute.Attribute;
+import com.example.jcparser.attribute.annotation.ParameterAnnotation;
+import com.example.jcparser.attribute.annotation.RuntimeAnnotationsAttribute;
+import com.example.jcparser.attribute.annotation.RuntimeAnnotationsAttribute.Annotation;
+import com.example.jcparser.attribute.annotation.RuntimeParameterAnnotationsAttribute;
+import com.example.jcparser.constantpool.ConstantPoolEntry;
+import com.example.jcparser.constantpool.ConstantPoolUtf8;
+import com.example.jcparser.constantpool.LazyConstantPool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds the annotated classes, fields and methods for a classpath scan. Only the constant pool and the
+ * {@code RuntimeVisibleAnnotations}, {@code RuntimeInvisibleAnnotations} and the parameter annotations attributes
+ * are read, {@code Code} and every other attribute is skipped by its length. The annotations of the parameters are
+ * indexed for their method.
+ * <p>
+ * The result is a {@link SymbolIndex} from the annotation types, like {@code java/lang/Deprecated}, to the annotated
+ * elements: a class {@code owner} or a member {@code owner.name:descriptor}. Every class file is recorded by its own
+ * visitor from {@link #newClass(String)}, so class files may be parsed concurrently.
+ */
+public class AnnotationScanner {
+	private static final Set<String> ATTRIBUTES = Set.of("RuntimeVisibleAnnotations", "RuntimeInvisibleAnnotations",
+			"RuntimeVisibleParameterAnnotations", "RuntimeInvisibleParameterAnnotations");
+	private final SymbolIndexWriter writer = new SymbolIndexWriter();
+
+	/**
+	 * @param source name of the class file, like its path or archive entry
+	 */
+	public ClassFileVisitor newClass(String source) {
+		return new Recorder(source);
+	}
+
+	/**
+	 * @return count of the annotated classes, fields and methods
+	 */
+	public int size() {
+		return writer.size();
+	}
+
+	public SymbolIndex toIndex() {
+		return SymbolIndex.of(ByteBuffer.wrap(writer.toByteArray()));
+	}
+
+	public void write(Path path) throws IOException {
+		writer.write(path);
+	}
+
+	private class Recorder implements ClassFileVisitor {
+		private final String source;
+		private final Map<String, Set<String>> elements = new LinkedHashMap<>();
+		private LazyConstantPool constantPool;
+		private String className;
+		private int nameIndex;
+		private int descriptorIndex;
+
+		Recorder(String source) {
+			this.source = source;
+		}
+
+		@Override
+		public boolean lazyConstantPool() {
+			return true;
+		}
+
+		@Override
+		public void visitConstantPool(List<ConstantPoolEntry> constantPool) {
+			this.constantPool = (LazyConstantPool) constantPool;
+		}
+
+		@Override
+		public void visitClass(U2 accessFlags, U2 thisClass, U2 superClass) {
+			className = SymbolIndexWriter.getSymbol(constantPool, thisClass.getValue());
+		}
+
+		@Override
+		public void visitField(U2 accessFlags, U2 nameIndex, U2 descriptorIndex, U2 attributesCount) {
+			visitMember(nameIndex, descriptorIndex);
+		}
+
+		@Override
+		public void visitMethod(U2 accessFlags, U2 nameIndex, U2 descriptorIndex, U2 attributesCount) {
+			visitMember(nameIndex, descriptorIndex);
+		}
+
+		/**
+		 * The name of the member is read only when the attributes visited after it are annotations.
+		 */
+		private void visitMember(U2 nameIndex, U2 descriptorIndex) {
+			this.nameIndex = nameIndex.getValue();
+			this.descriptorIndex = descriptorIndex.getValue();
+		}
+
+		@Override
+		public void visitAttributesCount(U2 count) {
+			nameIndex = 0;
+		}
+
+		@Override
+		public boolean acceptAttribute(String name) {
+			return ATTRIBUTES.contains(name);
+		}
+
+		@Override
+		public void visitAttribute(Attribute attribute) {
+			if (attribute instanceof RuntimeAnnotationsAttribute annotations) {
+				addAll(annotations.getAnnotations());
+			} else if (attribute instanceof RuntimeParameterAnnotationsAttribute parameterAnnotations) {
+				for (ParameterAnnotation parameter : parameterAnnotations.getParameterAnnotations()) {
+					addAll(parameter.annotations());
+				}
+			}
+		}
+
+		private void addAll(Annotation[] annotations) {
+			if (annotations.length == 0) {
+				return;
+			}
+			String element = nameIndex == 0 ? className
+					: className + "." + getUtf8(nameIndex) + ":" + getUtf8(descriptorIndex);
+			Set<String> types = elements.computeIfAbsent(element, e -> new HashSet<>());
+			for (Annotation annotation : annotations) {
+				String descriptor = getUtf8(annotation.typeIndex().getValue());
+				types.add(descriptor.substring(1, descriptor.length() - 1));
+			}
+		}
+
+		@Override
+		public void visitEnd() {
+			elements.forEach((element, types) -> writer.add(source, element, types));
+		}
+
+		private String getUtf8(int index) {
+			return ((ConstantPoolUtf8) constantPool.get(index)).getValue();
+		}
+	}
+}
@@ -0,0 +1,352 @@
+package com.example.jcparser.index;
+
+import com.example.jcparser.ClassFileVisitor;
+import com.example.jcparser.Parser.U2;
+import com.example.jcparser.attribute.Attribute;
+import com.example.jcparser.attribute.BootstrapMethodsAttribute;
+import com.example.jcparser.attribute.BootstrapMethodsAttribute.BootstrapMethod;
+import com.example.jcparser.attribute.instruction.Bytecode;
+import com.example.jcparser.constantpool.ConstantPoolDynamic;
+import com.example.jcparser.constantpool.ConstantPoolEntry;
+import com.example.jcparser.constantpool.ConstantPoolMethodHandle;
+import com.example.jcparser.constantpool.ConstantPoolUtf8;
+import com.example.jcparser.constantpool.LazyConstantPool;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Static call graph of the methods of the parsed class files, from the {@code invokevirtual}, {@code invokespecial},
+ * {@code invokestatic}, {@code invokeinterface} and {@code invokedynamic} instructions of their {@code Code}
+ * attributes. A method is an int id of its symbol, {@code owner.name:descriptor} like in the {@link SymbolIndex}.
+ * An {@code invokedynamic} calls its bootstrap method and the methods of the method handle arguments, like the body
+ * of a lambda.
+ * <p>
+ * The edges are one int array of caller and callee pairs, no object per edge. Every class file is recorded by its own
+ * visitor from {@link #newClass(String)}, so class files may be parsed concurrently; a class parsed again, like a copy
+ * in a second archive, keeps its first edges.
+ */
+public class CallGraph {
+	public static final int NO_METHOD = -1;
+	private static final int INVOKEVIRTUAL = 0xB6;
+	private static final int INVOKEINTERFACE = 0xB9;
+	private static final int INVOKEDYNAMIC = 0xBA;
+	private static final Set<String> ATTRIBUTES = Set.of("Code", "BootstrapMethods");
+	private final Map<String, Integer> ids = new HashMap<>();
+	private final Set<String> classes = new HashSet<>();
+	private final BitSet declared = new BitSet();
+	private String[] names = new String[16];
+	private int[] edges = new int[32];
+	private int edgeCount;
+	private Rows callees;
+	private Rows callers;
+
+	/**
+	 * @param source name of the class file, like its path or archive entry, unused
+	 */
+	public ClassFileVisitor newClass(String source) {
+		return new Recorder();
+	}
+
+	public synchronized int getMethodCount() {
+		return ids.size();
+	}
+
+	/**
+	 * @param method method symbol, like {@code java/io/PrintStream.println:(Ljava/lang/String;)V}
+	 * @return id of the method, {@link #NO_METHOD} when no parsed class file declares or calls it, the call queries
+	 * find nothing for it
+	 */
+	public synchronized int getMethodId(String method) {
+		return ids.getOrDefault(method, NO_METHOD);
+	}
+
+	public synchronized String getMethodName(int id) {
+		return names[id];
+	}
+
+	/**
+	 * @return true for a method of a parsed class file, false for a method that is only called
+	 */
+	public synchronized boolean isDeclared(int id) {
+		return declared.get(id);
+	}
+
+	public synchronized int getEdgeCount() {
+		return edgeCount;
+	}
+
+	public synchronized int getCaller(int edge) {
+		return edges[edge * 2];
+	}
+
+	public synchronized int getCallee(int edge) {
+		return edges[edge * 2 + 1];
+	}
+
+	/**
+	 * @return ids of the methods the method calls, sorted
+	 */
+	public synchronized int[] getCallees(int id) {
+		if (callees == null) {
+			callees = new Rows(0);
+		}
+		return callees.get(id);
+	}
+
+	/**
+	 * @return ids of the methods calling the method, sorted
+	 */
+	public synchronized int[] getCallers(int id) {
+		if (callers == null) {
+			callers = new Rows(1);
+		}
+		return callers.get(id);
+	}
+
+	/**
+	 * The methods a dead code check keeps: the declared methods missing from the result are never called from the
+	 * roots.
+	 *
+	 * @param roots ids of the entry points, like {@code main} or the methods called by reflection, {@link #NO_METHOD}
+	 *              is ignored
+	 * @return ids of the roots and of all methods they call directly or indirectly, sorted
+	 */
+	public synchronized int[] getReachable(int... roots) {
+		if (callees == null) {
+			callees = new Rows(0);
+		}
+		BitSet reachable = new BitSet(ids.size());
+		int[] queue = new int[Math.max(16, roots.length)];
+		int tail = 0;
+		for (int root : roots) {
+			if (root != NO_METHOD && !reachable.get(root)) {
+				reachable.set(root);
+				queue[tail++] = root;
+			}
+		}
+		for (int head = 0; head < tail; head++) {
+			int next = queue[head];
+			for (int i = callees.offsets[next]; i < callees.offsets[next + 1]; i++) {
+				int callee = callees.ids[i];
+				if (!reachable.get(callee)) {
+					reachable.set(callee);
+					if (tail == queue.length) {
+						queue = Arrays.copyOf(queue, tail * 2);
+					}
+					queue[tail++] = callee;
+				}
+			}
+		}
+		return reachable.stream().toArray();
+	}
+
+	/**
+	 * @param methods         symbols of the methods the class declares or calls
+	 * @param declaredMethods indexes of the declared methods
+	 * @param pairs           caller and callee pairs of indexes into the symbols
+	 */
+	private synchronized void add(String className, List<String> methods, BitSet declaredMethods, int[] pairs,
+	                              int count) {
+		if (!classes.add(className)) {
+			return;
+		}
+		int[] map = new int[methods.size()];
+		for (int i = 0; i < map.length; i++) {
+			map[i] = getOrAddId(methods.get(i));
+			if (declaredMethods.get(i)) {
+				declared.set(map[i]);
+			}
+		}
+		if (edgeCount * 2 + count * 2 > edges.length) {
+			edges = Arrays.copyOf(edges, Math.max(edges.length * 2, edgeCount * 2 + count * 2));
+		}
+		for (int i = 0; i < count * 2; i++) {
+			edges[edgeCount * 2 + i] = map[pairs[i]];
+		}
+		edgeCount += count;
+		callees = null;
+		callers = null;
+	}
+
+	private int getOrAddId(String method) {
+		Integer id = ids.get(method);
+		if (id != null) {
+			return id;
+		}
+		int newId = ids.size();
+		if (newId == names.length) {
+			names = Arrays.copyOf(names, newId * 2);
+		}
+		names[newId] = method;
+		ids.put(method, newId);
+		return newId;
+	}
+
+	/**
+	 * Compressed rows of the edges by caller or by callee, built on the first query after the edges change:
+	 * the neighbours of a method are {@code ids[offsets[id]]} up to {@code ids[offsets[id + 1]]}.
+	 */
+	private final class Rows {
+		private final int[] offsets;
+		private final int[] ids;
+
+		/**
+		 * @param from 0 to index by caller, 1 by callee
+		 */
+		Rows(int from) {
+			int methodCount = CallGraph.this.ids.size();
+			offsets = new int[methodCount + 1];
+			ids = new int[edgeCount];
+			for (int i = 0; i < edgeCount; i++) {
+				offsets[edges[i * 2 + from] + 1]++;
+			}
+			for (int i = 0; i < methodCount; i++) {
+				offsets[i + 1] += offsets[i];
+			}
+			int[] next = Arrays.copyOf(offsets, methodCount);
+			for (int i = 0; i < edgeCount; i++) {
+				ids[next[edges[i * 2 + from]]++] = edges[i * 2 + 1 - from];
+			}
+			for (int i = 0; i < methodCount; i++) {
+				Arrays.sort(ids, offsets[i], offsets[i + 1]);
+			}
+		}
+
+		int[] get(int id) {
+			return id == NO_METHOD ? new int[0] : Arrays.copyOfRange(ids, offsets[id], offsets[id + 1]);
+		}
+	}
+
+	/**
+	 * Collects the edges of one class with local method indexes, adds them to the graph at the end.
+	 */
+	private class Recorder implements ClassFileVisitor {
+		private final Map<String, Integer> localIds = new HashMap<>();
+		private final List<String> methods = new ArrayList<>();
+		private final BitSet declaredMethods = new BitSet();
+		private LazyConstantPool constantPool;
+		private int[] calleeByConstant;
+		private String className;
+		private int caller;
+		private long[] calls = new long[16];
+		private int callCount;
+		private int[] dynamicCalls = new int[0];
+		private int dynamicCallCount;
+		private BootstrapMethodsAttribute bootstrapMethods;
+
+		@Override
+		public boolean lazyConstantPool() {
+			return true;
+		}
+
+		@Override
+		public void visitConstantPool(List<ConstantPoolEntry> constantPool) {
+			this.constantPool = (LazyConstantPool) constantPool;
+			calleeByConstant = new int[constantPool.size()];
+			Arrays.fill(calleeByConstant, NO_METHOD);
+		}
+
+		@Override
+		public void visitClass(U2 accessFlags, U2 thisClass, U2 superClass) {
+			className = SymbolIndexWriter.getSymbol(constantPool, thisClass.getValue());
+		}
+
+		@Override
+		public void visitMethod(U2 accessFlags, U2 nameIndex, U2 descriptorIndex, U2 attributesCount) {
+			caller = localId(className + "." + getUtf8(nameIndex.getValue()) + ":" + getUtf8(descriptorIndex.getValue()));
+			declaredMethods.set(caller);
+		}
+
+		@Override
+		public boolean acceptAttribute(String name) {
+			return ATTRIBUTES.contains(name);
+		}
+
+		@Override
+		public void visitInstruction(Bytecode bytecode, int index) {
+			int opcode = bytecode.getOpcode(index);
+			if (opcode >= INVOKEVIRTUAL && opcode <= INVOKEINTERFACE) {
+				addCall(callee(bytecode.getU2Operand(index, 0)));
+			} else if (opcode == INVOKEDYNAMIC) {
+				if (dynamicCallCount + 2 > dynamicCalls.length) {
+					dynamicCalls = Arrays.copyOf(dynamicCalls, Math.max(16, dynamicCalls.length * 2));
+				}
+				dynamicCalls[dynamicCallCount++] = caller;
+				dynamicCalls[dynamicCallCount++] = bytecode.getU2Operand(index, 0);
+			}
+		}
+
+		@Override
+		public void visitAttribute(Attribute attribute) {
+			if (attribute instanceof BootstrapMethodsAttribute attr) {
+				bootstrapMethods = attr;
+			}
+		}
+
+		/**
+		 * The bootstrap methods follow the code, the dynamic calls are resolved here.
+		 */
+		@Override
+		public void visitEnd() {
+			BootstrapMethod[] bootstrap = bootstrapMethods == null ? null : bootstrapMethods.getBootstrapMethods();
+			for (int i = 0; i < dynamicCallCount && bootstrap != null; i += 2) {
+				caller = dynamicCalls[i];
+				ConstantPoolDynamic dynamic = (ConstantPoolDynamic) constantPool.get(dynamicCalls[i + 1]);
+				BootstrapMethod bootstrapMethod = bootstrap[dynamic.getBootstrapMethodAttrIndex()];
+				addMethodHandleCall(bootstrapMethod.bootstrapMethodRef().getValue());
+				for (U2 argument : bootstrapMethod.bootstrapArguments().array()) {
+					addMethodHandleCall(argument.getValue());
+				}
+			}
+			long[] sorted = Arrays.stream(calls, 0, callCount).sorted().distinct().toArray();
+			int[] pairs = new int[sorted.length * 2];
+			for (int i = 0; i < sorted.length; i++) {
+				pairs[i * 2] = (int) (sorted[i] >>> 32);
+				pairs[i * 2 + 1] = (int) sorted[i];
+			}
+			add(className, methods, declaredMethods, pairs, sorted.length);
+		}
+
+		/**
+		 * Only the handles of a method, the reference kinds start from 1.
+		 */
+		private void addMethodHandleCall(int index) {
+			if (constantPool.get(index) instanceof ConstantPoolMethodHandle handle
+					&& handle.getReferenceKind() > ConstantPoolMethodHandle.MHRef.REF_putStatic.ordinal() + 1) {
+				addCall(callee(handle.getReferenceIndex()));
+			}
+		}
+
+		private void addCall(int callee) {
+			if (callCount == calls.length) {
+				calls = Arrays.copyOf(calls, callCount * 2);
+			}
+			calls[callCount++] = (long) caller << 32 | callee;
+		}
+
+		private int callee(int index) {
+			if (calleeByConstant[index] == NO_METHOD) {
+				calleeByConstant[index] = localId(SymbolIndexWriter.getSymbol(constantPool, index));
+			}
+			return calleeByConstant[index];
+		}
+
+		private int localId(String method) {
+			return localIds.computeIfAbsent(method, m -> {
+				methods.add(m);
+				return methods.size() - 1;
+			});
+		}
+
+		private String getUtf8(int index) {
+			return ((ConstantPoolUtf8) constantPool.get(index)).getValue();
+		}
+	}
+}
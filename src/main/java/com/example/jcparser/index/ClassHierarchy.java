@@ -0,0 +1,317 @@
+package com.example.jcparser.index;
+
+import com.example.jcparser.ClassFileVisitor;
+import com.example.jcparser.Parser.U2;
+import com.example.jcparser.Parser.U2Array;
+import com.example.jcparser.attribute.Attribute;
+import com.example.jcparser.attribute.NestMembersAttribute;
+import com.example.jcparser.attribute.PermittedSubclassesAttribute;
+import com.example.jcparser.constantpool.ConstantPoolEntry;
+import com.example.jcparser.constantpool.LazyConstantPool;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Graph of the classes, their super classes and interfaces, and the {@code PermittedSubclasses} and
+ * {@code NestMembers} attributes. A class is a node with an int id, every class named by a parsed class file gets one,
+ * the classes that were not parsed themselves too. Every class file is recorded by its own visitor from
+ * {@link #newClass(String)}, so class files may be parsed concurrently; a class parsed again, like a copy in a second
+ * archive, keeps its first edges.
+ * <p>
+ * The edges are kept in both directions, a closure query walks the int arrays without creating objects per class.
+ */
+public class ClassHierarchy {
+	public static final int NO_CLASS = -1;
+	private static final int ACC_INTERFACE = 0x0200;
+	private static final int[] EMPTY = new int[0];
+	private static final Set<String> ATTRIBUTES = Set.of("PermittedSubclasses", "NestMembers");
+	private final Map<String, Integer> ids = new HashMap<>();
+	private final Map<Edge, Adjacency> targets = new EnumMap<>(Edge.class);
+	private final Map<Edge, Adjacency> sources = new EnumMap<>(Edge.class);
+	private String[] names = new String[16];
+	private int[] accessFlags = new int[16];
+
+	public enum Edge {
+		/** From a class to its super class. */
+		SUPER_CLASS,
+		/** From a class or an interface to its direct super interfaces. */
+		INTERFACE,
+		/** From a sealed class or interface to the classes of its {@code PermittedSubclasses} attribute. */
+		PERMITTED_SUBCLASS,
+		/** From the host of a nest to the classes of its {@code NestMembers} attribute. */
+		NEST_MEMBER
+	}
+
+	public ClassHierarchy() {
+		for (Edge edge : Edge.values()) {
+			targets.put(edge, new Adjacency());
+			sources.put(edge, new Adjacency());
+		}
+	}
+
+	/**
+	 * @param source name of the class file, like its path or archive entry, unused
+	 */
+	public ClassFileVisitor newClass(String source) {
+		return new Recorder();
+	}
+
+	public synchronized int size() {
+		return ids.size();
+	}
+
+	/**
+	 * @param name internal name of a class, like {@code java/lang/String}
+	 * @return id of the class, {@link #NO_CLASS} when no parsed class file names it, the edge and closure queries
+	 * find nothing for it
+	 */
+	public synchronized int getId(String name) {
+		return ids.getOrDefault(name, NO_CLASS);
+	}
+
+	public synchronized String getName(int id) {
+		return names[id];
+	}
+
+	/**
+	 * @return access flags of the class, -1 when the class file was not parsed
+	 */
+	public synchronized int getAccessFlags(int id) {
+		return accessFlags[id];
+	}
+
+	public synchronized boolean isInterface(int id) {
+		return accessFlags[id] != -1 && (accessFlags[id] & ACC_INTERFACE) != 0;
+	}
+
+	/**
+	 * @return id of the super class, {@link #NO_CLASS} for {@code java/lang/Object} and the classes not parsed
+	 */
+	public synchronized int getSuperClass(int id) {
+		int[] superClass = targets.get(Edge.SUPER_CLASS).get(id);
+		return superClass.length == 0 ? NO_CLASS : superClass[0];
+	}
+
+	/**
+	 * @return ids of the classes the edges of the class lead to, in the order of the class file
+	 */
+	public synchronized int[] getTargets(Edge edge, int id) {
+		return targets.get(edge).get(id);
+	}
+
+	/**
+	 * @return ids of the classes with an edge to the class, like the direct subclasses for {@link Edge#SUPER_CLASS}
+	 */
+	public synchronized int[] getSources(Edge edge, int id) {
+		return sources.get(edge).get(id);
+	}
+
+	/**
+	 * @return ids of all super classes and super interfaces of the class, sorted
+	 */
+	public synchronized int[] getSupertypes(int id) {
+		return closure(targets, id, NO_CLASS).stream().toArray();
+	}
+
+	/**
+	 * @return ids of all classes and interfaces that extend or implement the class, sorted
+	 */
+	public synchronized int[] getSubtypes(int id) {
+		return closure(sources, id, NO_CLASS).stream().toArray();
+	}
+
+	/**
+	 * @return ids of the classes, not interfaces, that implement the interface directly or inherit it, sorted
+	 */
+	public synchronized int[] getImplementors(int id) {
+		return closure(sources, id, NO_CLASS).stream().filter(i -> accessFlags[i] != -1 && !isInterface(i)).toArray();
+	}
+
+	/**
+	 * @return true when the super type is a super class or a super interface of the subtype, not for the class itself
+	 */
+	public synchronized boolean isSubtype(int subtype, int supertype) {
+		return supertype != NO_CLASS && closure(targets, subtype, supertype).get(supertype);
+	}
+
+	/**
+	 * Walks the super class and interface edges breadth first.
+	 *
+	 * @param stop id to stop at when reached, {@link #NO_CLASS} for the whole closure
+	 */
+	private BitSet closure(Map<Edge, Adjacency> adjacency, int id, int stop) {
+		Adjacency[] supertypeEdges = {adjacency.get(Edge.SUPER_CLASS), adjacency.get(Edge.INTERFACE)};
+		BitSet visited = new BitSet(ids.size());
+		if (id == NO_CLASS) {
+			return visited;
+		}
+		int[] queue = new int[16];
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = id;
+		while (head < tail) {
+			int next = queue[head++];
+			for (Adjacency edges : supertypeEdges) {
+				if (next >= edges.lists.length || edges.lists[next] == null) {
+					continue;
+				}
+				int[] list = edges.lists[next];
+				for (int i = 0; i < edges.sizes[next]; i++) {
+					int target = list[i];
+					if (visited.get(target)) {
+						continue;
+					}
+					visited.set(target);
+					if (target == stop) {
+						return visited;
+					}
+					if (tail == queue.length) {
+						queue = Arrays.copyOf(queue, tail * 2);
+					}
+					queue[tail++] = target;
+				}
+			}
+		}
+		return visited;
+	}
+
+	private synchronized void add(String name, int flags, String superName, String[] interfaces,
+	                              Map<Edge, String[]> attributes) {
+		int id = getOrAddId(name);
+		if (accessFlags[id] != -1) {
+			return;
+		}
+		accessFlags[id] = flags;
+		if (superName != null) {
+			addEdge(Edge.SUPER_CLASS, id, getOrAddId(superName));
+		}
+		for (String interfaceName : interfaces) {
+			addEdge(Edge.INTERFACE, id, getOrAddId(interfaceName));
+		}
+		attributes.forEach((edge, classes) -> {
+			for (String className : classes) {
+				addEdge(edge, id, getOrAddId(className));
+			}
+		});
+	}
+
+	private int getOrAddId(String name) {
+		Integer id = ids.get(name);
+		if (id != null) {
+			return id;
+		}
+		int newId = ids.size();
+		if (newId == names.length) {
+			names = Arrays.copyOf(names, newId * 2);
+			accessFlags = Arrays.copyOf(accessFlags, newId * 2);
+		}
+		names[newId] = name;
+		accessFlags[newId] = -1;
+		ids.put(name, newId);
+		return newId;
+	}
+
+	private void addEdge(Edge edge, int from, int to) {
+		targets.get(edge).add(from, to);
+		sources.get(edge).add(to, from);
+	}
+
+	/**
+	 * Growable int list of the neighbours of every class, indexed by id.
+	 */
+	private static final class Adjacency {
+		private int[][] lists = new int[16][];
+		private int[] sizes = new int[16];
+
+		void add(int from, int to) {
+			if (from >= lists.length) {
+				int length = Math.max(from + 1, lists.length * 2);
+				lists = Arrays.copyOf(lists, length);
+				sizes = Arrays.copyOf(sizes, length);
+			}
+			int[] list = lists[from];
+			if (list == null) {
+				list = lists[from] = new int[2];
+			} else if (sizes[from] == list.length) {
+				list = lists[from] = Arrays.copyOf(list, list.length * 2);
+			}
+			list[sizes[from]++] = to;
+		}
+
+		int[] get(int from) {
+			return from >= 0 && from < lists.length && lists[from] != null ? Arrays.copyOf(lists[from], sizes[from]) : EMPTY;
+		}
+	}
+
+	/**
+	 * Reads the names from the constant pool on its own thread and adds the class to the graph at the end.
+	 */
+	private class Recorder implements ClassFileVisitor {
+		private final Map<Edge, String[]> attributes = new EnumMap<>(Edge.class);
+		private LazyConstantPool constantPool;
+		private String name;
+		private int flags;
+		private String superName;
+		private String[] interfaces;
+
+		@Override
+		public boolean lazyConstantPool() {
+			return true;
+		}
+
+		@Override
+		public void visitConstantPool(List<ConstantPoolEntry> constantPool) {
+			this.constantPool = (LazyConstantPool) constantPool;
+		}
+
+		@Override
+		public void visitClass(U2 accessFlags, U2 thisClass, U2 superClass) {
+			flags = accessFlags.getValue();
+			name = getClassName(thisClass.getValue());
+			superName = superClass.getValue() == 0 ? null : getClassName(superClass.getValue());
+		}
+
+		@Override
+		public void visitInterfaces(U2Array interfaces) {
+			this.interfaces = getClassNames(interfaces);
+		}
+
+		@Override
+		public boolean acceptAttribute(String name) {
+			return ATTRIBUTES.contains(name);
+		}
+
+		@Override
+		public void visitAttribute(Attribute attribute) {
+			if (attribute instanceof PermittedSubclassesAttribute permittedSubclasses) {
+				attributes.put(Edge.PERMITTED_SUBCLASS, getClassNames(permittedSubclasses.getClasses()));
+			} else if (attribute instanceof NestMembersAttribute nestMembers) {
+				attributes.put(Edge.NEST_MEMBER, getClassNames(nestMembers.getClasses()));
+			}
+		}
+
+		@Override
+		public void visitEnd() {
+			add(name, flags, superName, interfaces, attributes);
+		}
+
+		private String[] getClassNames(U2Array classes) {
+			U2[] array = classes.array();
+			String[] classNames = new String[array.length];
+			for (int i = 0; i < classNames.length; i++) {
+				classNames[i] = getClassName(array[i].getValue());
+			}
+			return classNames;
+		}
+
+		private String getClassName(int index) {
+			return SymbolIndexWriter.getSymbol(constantPool, index);
+		}
+	}
+}
@@ -0,0 +1,220 @@
+package com.example.jcparser.index;
+
+import com.example.jcparser.ClassFileVisitor;
+import com.example.jcparser.Parser.U2;
+import com.example.jcparser.constantpool.ConstantPoolEntry;
+import com.example.jcparser.constantpool.ConstantTag;
+import com.example.jcparser.constantpool.LazyConstantPool;
+import com.example.jcparser.constantpool.ModifiedUtf8;
+import org.apache.commons.text.StringEscapeUtils;
+
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Searches the {@code CONSTANT_Utf8} entries of many class files, like hard-coded URLs in the string literals.
+ * The entries are matched in the class file bytes of the lazy constant pool, no entry is decoded but the found ones,
+ * and all attributes are skipped. A {@link Pattern#LITERAL literal} pattern without other flags is compared with the
+ * modified UTF-8 bytes of the text, a regular expression or a literal with other flags, like
+ * {@link Pattern#CASE_INSENSITIVE}, reads the bytes of an ASCII entry as chars and decodes the other entries.
+ * Every class file is recorded by its own visitor from {@link #newClass(String)}, so class files may be parsed
+ * concurrently.
+ */
+public class ConstantSearch {
+	private static final int UTF8_HEADER = 3;
+	private final Pattern pattern;
+	private final byte[] literal;
+	private final List<Hit> hits = new ArrayList<>();
+
+	/**
+	 * @param source   name of the class file, like its path or archive entry
+	 * @param index    constant pool index of the {@code CONSTANT_Utf8} entry
+	 * @param offset   offset of the entry in the class file
+	 * @param constant true when a {@code CONSTANT_String} refers to the entry, a string literal of the code,
+	 *                 false for the names, descriptors and signatures
+	 */
+	public record Hit(String source, String className, int index, int offset, boolean constant, String value) {
+	}
+
+	/**
+	 * @param pattern text to find with the {@link Pattern#LITERAL} flag, a regular expression to find without it
+	 */
+	public ConstantSearch(Pattern pattern) {
+		this.pattern = pattern;
+		this.literal = pattern.flags() == Pattern.LITERAL ? ModifiedUtf8.encode(pattern.pattern()) : null;
+	}
+
+	/**
+	 * @param source name of the class file, like its path or archive entry
+	 */
+	public ClassFileVisitor newClass(String source) {
+		return new Recorder(source);
+	}
+
+	/**
+	 * @return the hits sorted by source and constant pool index
+	 */
+	public synchronized List<Hit> getHits() {
+		hits.sort(Comparator.comparing(Hit::source).thenComparingInt(Hit::index));
+		return List.copyOf(hits);
+	}
+
+	/**
+	 * Prints a line per hit: source, constant pool index, offset, class and the entry escaped like in the dump.
+	 */
+	public void print(PrintStream out) {
+		for (Hit hit : getHits()) {
+			out.printf("%s #%d %04X %s %s%s%n", hit.source(), hit.index(), hit.offset(), hit.className(),
+					hit.constant() ? "String " : "", StringEscapeUtils.escapeJava(hit.value()));
+		}
+	}
+
+	private synchronized void addAll(List<Hit> classHits) {
+		hits.addAll(classHits);
+	}
+
+	/**
+	 * @return true when the bytes contain the literal
+	 */
+	private boolean containsLiteral(ByteBuffer buffer, int offset, int length) {
+		if (literal.length == 0) {
+			return true;
+		}
+		int last = offset + length - literal.length;
+		for (int i = offset; i <= last; i++) {
+			if (buffer.get(i) != literal[0]) {
+				continue;
+			}
+			int j = 1;
+			while (j < literal.length && buffer.get(i + j) == literal[j]) {
+				j++;
+			}
+			if (j == literal.length) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isAscii(ByteBuffer buffer, int offset, int length) {
+		for (int i = offset; i < offset + length; i++) {
+			if (buffer.get(i) <= 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * ASCII bytes of an entry as chars, set to the next entry instead of creating a string for every entry.
+	 */
+	private static final class AsciiSequence implements CharSequence {
+		private ByteBuffer buffer;
+		private int offset;
+		private int length;
+
+		AsciiSequence set(ByteBuffer buffer, int offset, int length) {
+			this.buffer = buffer;
+			this.offset = offset;
+			this.length = length;
+			return this;
+		}
+
+		@Override
+		public int length() {
+			return length;
+		}
+
+		@Override
+		public char charAt(int index) {
+			return (char) buffer.get(offset + index);
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			return new AsciiSequence().set(buffer, offset + start, end - start);
+		}
+
+		@Override
+		public String toString() {
+			return ModifiedUtf8.decode(buffer, offset, length);
+		}
+	}
+
+	private class Recorder implements ClassFileVisitor {
+		private final String source;
+		private LazyConstantPool constantPool;
+
+		Recorder(String source) {
+			this.source = source;
+		}
+
+		@Override
+		public boolean lazyConstantPool() {
+			return true;
+		}
+
+		@Override
+		public void visitConstantPool(List<ConstantPoolEntry> constantPool) {
+			this.constantPool = (LazyConstantPool) constantPool;
+		}
+
+		@Override
+		public boolean acceptAttribute(String name) {
+			return false;
+		}
+
+		/**
+		 * Searches here, when the name of the class is known.
+		 */
+		@Override
+		public void visitClass(U2 accessFlags, U2 thisClass, U2 superClass) {
+			ByteBuffer buffer = constantPool.getBuffer();
+			Matcher matcher = literal == null ? pattern.matcher("") : null;
+			AsciiSequence ascii = new AsciiSequence();
+			BitSet found = new BitSet();
+			for (int i = 1; i < constantPool.size(); i++) {
+				if (constantPool.getConstantTag(i) != ConstantTag.CONSTANT_Utf8) {
+					continue;
+				}
+				int offset = constantPool.getOffset(i) + UTF8_HEADER;
+				int length = Short.toUnsignedInt(buffer.getShort(offset - Short.BYTES));
+				boolean match;
+				if (literal != null) {
+					match = containsLiteral(buffer, offset, length);
+				} else if (isAscii(buffer, offset, length)) {
+					match = matcher.reset(ascii.set(buffer, offset, length)).find();
+				} else {
+					match = matcher.reset(ModifiedUtf8.decode(buffer, offset, length)).find();
+				}
+				if (match) {
+					found.set(i);
+				}
+			}
+			if (found.isEmpty()) {
+				return;
+			}
+			BitSet constants = new BitSet();
+			for (int i = 1; i < constantPool.size(); i++) {
+				if (constantPool.getConstantTag(i) == ConstantTag.CONSTANT_String) {
+					constants.set(Short.toUnsignedInt(buffer.getShort(constantPool.getOffset(i) + 1)));
+				}
+			}
+			String className = SymbolIndexWriter.getSymbol(constantPool, thisClass.getValue());
+			List<Hit> classHits = new ArrayList<>();
+			found.stream().forEach(i -> {
+				int offset = constantPool.getOffset(i);
+				int length = Short.toUnsignedInt(buffer.getShort(offset + 1));
+				classHits.add(new Hit(source, className, i, offset, constants.get(i),
+						ModifiedUtf8.decode(buffer, offset + UTF8_HEADER, length)));
+			});
+			addAll(classHits);
+		}
+	}
+}
@@ -0,0 +1,160 @@
+package com.example.jcparser.index;
+
+import com.example.jcparser.constantpool.ModifiedUtf8;
+import com.example.jcparser.snapshot.VarInt;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Inverted index from the symbols referred to by class files to the classes referring to them, written by
+ * {@link SymbolIndexWriter}. A symbol is a class, {@code java/lang/String}, or a member of a class,
+ * {@code java/lang/String.valueOf:(I)Ljava/lang/String;}. Opening the index reads nothing but the header,
+ * a query is a binary search over the sorted symbols. {@link AnnotationScanner} writes the same format with
+ * the annotation types as the symbols and the annotated elements as the classes.
+ * <p>
+ * Counts and offsets in the header are four bytes, the rest are {@link VarInt varints}. Strings are their byte count
+ * and modified UTF-8 bytes:
+ * <pre>
+ * magic "JCSI", version, class count, symbol count
+ * class offsets, symbol offsets
+ * classes: name, source
+ * symbols: symbol, class count, class ids as deltas from the previous id
+ * </pre>
+ */
+public final class SymbolIndex {
+	static final int MAGIC = 0x4A435349;
+	static final int VERSION = 1;
+	static final int HEADER_INTS = 4;
+	private final ByteBuffer buffer;
+	private final int classCount;
+	private final int symbolCount;
+	private final int symbolOffsets;
+
+	private SymbolIndex(ByteBuffer buffer) {
+		this.buffer = buffer;
+		if (buffer.getInt(0) != MAGIC) {
+			throw new IllegalArgumentException("Not a symbol index");
+		}
+		int version = buffer.getInt(Integer.BYTES);
+		if (version != VERSION) {
+			throw new IllegalArgumentException("Unsupported symbol index version: " + version);
+		}
+		classCount = buffer.getInt(2 * Integer.BYTES);
+		symbolCount = buffer.getInt(3 * Integer.BYTES);
+		symbolOffsets = (HEADER_INTS + classCount) * Integer.BYTES;
+	}
+
+	public static SymbolIndex open(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return new SymbolIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	public static SymbolIndex of(ByteBuffer buffer) {
+		return new SymbolIndex(buffer);
+	}
+
+	public int getClassCount() {
+		return classCount;
+	}
+
+	public int getSymbolCount() {
+		return symbolCount;
+	}
+
+	public String getClassName(int id) {
+		ByteBuffer in = classEntry(id);
+		return readString(in);
+	}
+
+	public String getSource(int id) {
+		ByteBuffer in = classEntry(id);
+		skipString(in);
+		return readString(in);
+	}
+
+	public String getSymbol(int index) {
+		return readString(symbolEntry(index));
+	}
+
+	/**
+	 * @param symbol a class, a member with its descriptor, or a member without the descriptor to match all overloads,
+	 *               like {@code java/io/PrintStream.println}
+	 * @return ids of the classes referring to the symbol, sorted
+	 */
+	public int[] find(String symbol) {
+		List<int[]> found = new ArrayList<>();
+		int index = lowerBound(symbol);
+		if (index < symbolCount && getSymbol(index).equals(symbol)) {
+			found.add(readClassIds(index));
+		}
+		if (symbol.indexOf('.') >= 0 && symbol.indexOf(':') < 0) {
+			String prefix = symbol + ":";
+			for (int i = lowerBound(prefix); i < symbolCount && getSymbol(i).startsWith(prefix); i++) {
+				found.add(readClassIds(i));
+			}
+		}
+		return union(found);
+	}
+
+	/**
+	 * @return index of the first symbol not less than the key
+	 */
+	private int lowerBound(String key) {
+		int low = 0;
+		int high = symbolCount;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (getSymbol(middle).compareTo(key) < 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	private int[] readClassIds(int index) {
+		ByteBuffer in = symbolEntry(index);
+		skipString(in);
+		int[] ids = new int[VarInt.readInt(in)];
+		int id = 0;
+		for (int i = 0; i < ids.length; i++) {
+			id += VarInt.readInt(in);
+			ids[i] = id;
+		}
+		return ids;
+	}
+
+	private static int[] union(List<int[]> lists) {
+		if (lists.size() == 1) {
+			return lists.get(0);
+		}
+		return lists.stream().flatMapToInt(Arrays::stream).sorted().distinct().toArray();
+	}
+
+	private ByteBuffer classEntry(int id) {
+		return buffer.duplicate().position(buffer.getInt((HEADER_INTS + id) * Integer.BYTES));
+	}
+
+	private ByteBuffer symbolEntry(int index) {
+		return buffer.duplicate().position(buffer.getInt(symbolOffsets + index * Integer.BYTES));
+	}
+
+	private String readString(ByteBuffer in) {
+		int length = VarInt.readInt(in);
+		return ModifiedUtf8.decode(buffer, in.position(), length);
+	}
+
+	private static void skipString(ByteBuffer in) {
+		int length = VarInt.readInt(in);
+		in.position(in.position() + length);
+	}
+}
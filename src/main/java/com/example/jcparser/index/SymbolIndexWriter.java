@@ -0,0 +1,217 @@
+package com.example.jcparser.index;
+
+import com.example.jcparser.ClassFileVisitor;
+import com.example.jcparser.Parser.U2;
+import com.example.jcparser.constantpool.*;
+import com.example.jcparser.snapshot.VarInt;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Collects the symbols every class file refers to and writes them as a {@link SymbolIndex}.
+ * Only the constant pool is read: the {@code CONSTANT_Class}, {@code CONSTANT_Fieldref}, {@code CONSTANT_Methodref}
+ * and {@code CONSTANT_InterfaceMethodref} entries, all attributes are skipped. Every class file is recorded by its own
+ * visitor from {@link #newClass(String)}, so class files may be parsed concurrently.
+ */
+public class SymbolIndexWriter {
+	private final List<IndexedClass> classes = new ArrayList<>();
+	private final Map<String, Postings> postings = new HashMap<>();
+
+	/**
+	 * @param source name of the class file, like its path or archive entry
+	 */
+	public ClassFileVisitor newClass(String source) {
+		return new Recorder(source);
+	}
+
+	public synchronized int size() {
+		return classes.size();
+	}
+
+	public void write(Path path) throws IOException {
+		try (OutputStream out = Files.newOutputStream(path)) {
+			out.write(toByteArray());
+		}
+	}
+
+	/**
+	 * Classes are numbered by source and symbols are sorted, the same input gives the same bytes.
+	 */
+	public synchronized byte[] toByteArray() {
+		Integer[] order = new Integer[classes.size()];
+		Arrays.setAll(order, i -> i);
+		Arrays.sort(order, Comparator.comparing((Integer i) -> classes.get(i).source())
+				.thenComparing(i -> classes.get(i).name()));
+		int[] ids = new int[order.length];
+		for (int i = 0; i < order.length; i++) {
+			ids[order[i]] = i;
+		}
+		List<String> symbols = new ArrayList<>(postings.keySet());
+		Collections.sort(symbols);
+
+		ByteArrayOutputStream data = new ByteArrayOutputStream();
+		int[] classOffsets = new int[order.length];
+		for (int i = 0; i < order.length; i++) {
+			classOffsets[i] = data.size();
+			IndexedClass indexedClass = classes.get(order[i]);
+			writeString(data, indexedClass.name());
+			writeString(data, indexedClass.source());
+		}
+		int[] symbolOffsets = new int[symbols.size()];
+		for (int i = 0; i < symbols.size(); i++) {
+			symbolOffsets[i] = data.size();
+			writeString(data, symbols.get(i));
+			int[] classIds = postings.get(symbols.get(i)).toArray(ids);
+			VarInt.write(data, classIds.length);
+			int previous = 0;
+			for (int id : classIds) {
+				VarInt.write(data, id - previous);
+				previous = id;
+			}
+		}
+		int header = SymbolIndex.HEADER_INTS * Integer.BYTES + (classOffsets.length + symbolOffsets.length) * Integer.BYTES;
+		ByteArrayOutputStream out = new ByteArrayOutputStream(header + data.size());
+		writeInt(out, SymbolIndex.MAGIC);
+		writeInt(out, SymbolIndex.VERSION);
+		writeInt(out, classOffsets.length);
+		writeInt(out, symbolOffsets.length);
+		for (int offset : classOffsets) {
+			writeInt(out, header + offset);
+		}
+		for (int offset : symbolOffsets) {
+			writeInt(out, header + offset);
+		}
+		out.writeBytes(data.toByteArray());
+		return out.toByteArray();
+	}
+
+	private static void writeString(ByteArrayOutputStream out, String string) {
+		byte[] bytes = ModifiedUtf8.encode(string);
+		VarInt.write(out, bytes.length);
+		out.writeBytes(bytes);
+	}
+
+	private static void writeInt(ByteArrayOutputStream out, int value) {
+		out.write(value >>> 24);
+		out.write(value >>> 16);
+		out.write(value >>> 8);
+		out.write(value);
+	}
+
+	/**
+	 * @param name    class, or any other name the symbols are indexed for, like an annotated member
+	 * @param symbols symbols of the name
+	 */
+	synchronized void add(String source, String name, Set<String> symbols) {
+		int id = classes.size();
+		classes.add(new IndexedClass(name, source));
+		for (String symbol : symbols) {
+			postings.computeIfAbsent(symbol, s -> new Postings()).add(id);
+		}
+	}
+
+	/**
+	 * @return the symbol of a class or member reference: {@code owner} or {@code owner.name:descriptor},
+	 * null for the other entries
+	 */
+	static String getSymbol(List<ConstantPoolEntry> constantPool, int index) {
+		ConstantPoolEntry cpe = constantPool.get(index);
+		return switch (cpe.getConstantTag()) {
+			case CONSTANT_Class -> getUtf8(constantPool, ((ConstantPoolString) cpe).getStringIndex());
+			case CONSTANT_Fieldref, CONSTANT_Methodref, CONSTANT_InterfaceMethodref -> {
+				ConstantPoolMethodRef ref = (ConstantPoolMethodRef) cpe;
+				ConstantPoolNameAndType nameAndType =
+						(ConstantPoolNameAndType) constantPool.get(ref.getNameAndTypeIndex());
+				yield getSymbol(constantPool, ref.getClassIndex()) + "." + getUtf8(constantPool,
+						nameAndType.getNameIndex()) + ":" + getUtf8(constantPool, nameAndType.getDescriptorIndex());
+			}
+			default -> null;
+		};
+	}
+
+	private static String getUtf8(List<ConstantPoolEntry> constantPool, int index) {
+		return ((ConstantPoolUtf8) constantPool.get(index)).getValue();
+	}
+
+	private record IndexedClass(String name, String source) {
+	}
+
+	/**
+	 * Growable list of the ids of the classes that refer to one symbol, in the order they were added.
+	 */
+	private static final class Postings {
+		private int[] ids = new int[4];
+		private int size;
+
+		void add(int id) {
+			if (size == ids.length) {
+				ids = Arrays.copyOf(ids, size * 2);
+			}
+			ids[size++] = id;
+		}
+
+		/**
+		 * @return the ids mapped to the written ids, sorted
+		 */
+		int[] toArray(int[] map) {
+			int[] mapped = new int[size];
+			for (int i = 0; i < size; i++) {
+				mapped[i] = map[ids[i]];
+			}
+			Arrays.sort(mapped);
+			return mapped;
+		}
+	}
+
+	private class Recorder implements ClassFileVisitor {
+		private final String source;
+		private LazyConstantPool constantPool;
+
+		Recorder(String source) {
+			this.source = source;
+		}
+
+		@Override
+		public boolean lazyConstantPool() {
+			return true;
+		}
+
+		@Override
+		public void visitConstantPool(List<ConstantPoolEntry> constantPool) {
+			this.constantPool = (LazyConstantPool) constantPool;
+		}
+
+		@Override
+		public boolean acceptAttribute(String name) {
+			return false;
+		}
+
+		/**
+		 * Only the referring entries are decoded, with the entries they refer to.
+		 */
+		@Override
+		public void visitClass(U2 accessFlags, U2 thisClass, U2 superClass) {
+			Set<String> symbols = new HashSet<>();
+			for (int i = 1; i < constantPool.size(); i++) {
+				ConstantTag tag = constantPool.getConstantTag(i);
+				if (tag == null) {
+					continue;
+				}
+				boolean reference = switch (tag) {
+					case CONSTANT_Class -> i != thisClass.getValue();
+					case CONSTANT_Fieldref, CONSTANT_Methodref, CONSTANT_InterfaceMethodref -> true;
+					default -> false;
+				};
+				if (reference) {
+					symbols.add(getSymbol(constantPool, i));
+				}
+			}
+			add(source, getSymbol(constantPool, thisClass.getValue()), symbols);
+		}
+	}
+}
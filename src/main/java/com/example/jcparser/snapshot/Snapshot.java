@@ -0,0 +1,293 @@
+package com.example.jcparser.snapshot;
+
+import com.example.jcparser.attribute.instruction.Bytecode;
+import com.example.jcparser.constantpool.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Snapshot of parsed class files written by {@link SnapshotWriter}, read without running the parser again.
+ * Opening a snapshot reads only the string offsets and the class index, a class is decoded the first time
+ * it is requested. A class is found by its name with a binary search over the classes sorted by name.
+ * <p>
+ * All numbers are {@link VarInt varints} unless noted, strings are indexes in the string table plus one
+ * (zero is null):
+ * <pre>
+ * magic "JCPS" (4 bytes), version
+ * string count, strings: byte count, modified UTF-8 bytes
+ * class count, class index: source, class name, record byte count
+ * classes sorted by name: class indexes
+ * class records
+ * </pre>
+ * A class record holds the minor and major versions, the constant pool, the access flags, the names of the class,
+ * the super class and the interfaces, the fields, the methods and the class attributes. A constant is its tag
+ * (one byte), the offset delta from the previous constant and its value, floats and doubles as raw big-endian bits.
+ * A member is its offset, access flags, name, descriptor and attributes. An attribute is its name, offset, length
+ * and a {@code Code} flag byte, the {@code Code} attribute continues with max stack, max locals, the code offset,
+ * the code bytes and its own attributes. The content of the other attributes is not kept, only where it is in the
+ * class file.
+ */
+public final class Snapshot {
+	static final int MAGIC = 0x4A435053;
+	static final int VERSION = 2;
+	private final ByteBuffer buffer;
+	private final int[] stringOffsets;
+	private final String[] strings;
+	private final int[] sources;
+	private final int[] names;
+	private final int[] byName;
+	private final int[] recordOffsets;
+	private final ClassEntry[] classes;
+
+	private Snapshot(ByteBuffer buffer) {
+		this.buffer = buffer;
+		ByteBuffer in = buffer.duplicate().position(0);
+		if (in.getInt() != MAGIC) {
+			throw new IllegalArgumentException("Not a class file snapshot");
+		}
+		int version = VarInt.readInt(in);
+		if (version != VERSION) {
+			throw new IllegalArgumentException("Unsupported snapshot version: " + version);
+		}
+		int stringCount = VarInt.readInt(in);
+		stringOffsets = new int[stringCount];
+		strings = new String[stringCount];
+		for (int i = 0; i < stringCount; i++) {
+			stringOffsets[i] = in.position();
+			int length = VarInt.readInt(in);
+			in.position(in.position() + length);
+		}
+		int classCount = VarInt.readInt(in);
+		sources = new int[classCount];
+		names = new int[classCount];
+		int[] lengths = new int[classCount];
+		for (int i = 0; i < classCount; i++) {
+			sources[i] = VarInt.readInt(in);
+			names[i] = VarInt.readInt(in);
+			lengths[i] = VarInt.readInt(in);
+		}
+		byName = new int[classCount];
+		for (int i = 0; i < classCount; i++) {
+			byName[i] = VarInt.readInt(in);
+		}
+		recordOffsets = new int[classCount];
+		int offset = in.position();
+		for (int i = 0; i < classCount; i++) {
+			recordOffsets[i] = offset;
+			offset += lengths[i];
+		}
+		classes = new ClassEntry[classCount];
+	}
+
+	public static Snapshot open(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return new Snapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	public static Snapshot of(ByteBuffer buffer) {
+		return new Snapshot(buffer);
+	}
+
+	public int size() {
+		return classes.length;
+	}
+
+	public String getSource(int index) {
+		return getString(sources[index]);
+	}
+
+	public String getClassName(int index) {
+		return getString(names[index]);
+	}
+
+	/**
+	 * @return index of the first class with the internal name, like {@code java/lang/String}, or -1
+	 */
+	public int indexOf(String className) {
+		int low = 0;
+		int high = byName.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			String name = getClassName(byName[middle]);
+			if (name == null || name.compareTo(className) < 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low < byName.length && className.equals(getClassName(byName[low])) ? byName[low] : -1;
+	}
+
+	/**
+	 * Decodes the class at the index, the decoded class is cached.
+	 */
+	public synchronized ClassEntry get(int index) {
+		ClassEntry entry = classes[index];
+		if (entry == null) {
+			entry = readClass(buffer.duplicate().position(recordOffsets[index]), getSource(index));
+			classes[index] = entry;
+		}
+		return entry;
+	}
+
+	private synchronized String getString(int id) {
+		if (id == 0) {
+			return null;
+		}
+		String string = strings[id - 1];
+		if (string == null) {
+			ByteBuffer in = buffer.duplicate().position(stringOffsets[id - 1]);
+			int length = VarInt.readInt(in);
+			string = ModifiedUtf8.decode(buffer, in.position(), length);
+			strings[id - 1] = string;
+		}
+		return string;
+	}
+
+	private String readString(ByteBuffer in) {
+		return getString(VarInt.readInt(in));
+	}
+
+	private ClassEntry readClass(ByteBuffer in, String source) {
+		int minorVersion = VarInt.readInt(in);
+		int majorVersion = VarInt.readInt(in);
+		List<ConstantPoolEntry> constantPool = readConstantPool(in);
+		int accessFlags = VarInt.readInt(in);
+		String name = readString(in);
+		String superName = readString(in);
+		int interfacesCount = VarInt.readInt(in);
+		List<String> interfaces = new ArrayList<>(interfacesCount);
+		for (int i = 0; i < interfacesCount; i++) {
+			interfaces.add(readString(in));
+		}
+		List<Member> fields = readMembers(in);
+		List<Member> methods = readMembers(in);
+		List<AttributeEntry> attributes = readAttributes(in);
+		return new ClassEntry(source, minorVersion, majorVersion, Collections.unmodifiableList(constantPool),
+				accessFlags, name, superName, List.copyOf(interfaces), fields, methods, attributes);
+	}
+
+	private List<ConstantPoolEntry> readConstantPool(ByteBuffer in) {
+		int count = VarInt.readInt(in);
+		List<ConstantPoolEntry> constantPool = new ArrayList<>(count);
+		constantPool.add(null);
+		int offset = 0;
+		for (int i = 1; i < count; i++) {
+			ConstantTag constantTag = ConstantTag.getConstant(Byte.toUnsignedInt(in.get()));
+			offset += VarInt.readInt(in);
+			constantPool.add(switch (constantTag) {
+				case CONSTANT_Utf8 -> new ConstantPoolUtf8(offset, i, constantTag, readString(in));
+				case CONSTANT_Integer -> new ConstantPoolInteger(offset, i, constantTag, (int) VarInt.readSigned(in));
+				case CONSTANT_Float -> new ConstantPoolFloat(offset, i, constantTag, Float.intBitsToFloat(in.getInt()));
+				case CONSTANT_Long -> new ConstantPoolLong(offset, i, constantTag, VarInt.readSigned(in));
+				case CONSTANT_Double ->
+						new ConstantPoolDouble(offset, i, constantTag, Double.longBitsToDouble(in.getLong()));
+				case CONSTANT_Class, CONSTANT_String, CONSTANT_MethodType, CONSTANT_Module, CONSTANT_Package ->
+						new ConstantPoolString(offset, i, constantTag, VarInt.readInt(in));
+				case CONSTANT_Fieldref, CONSTANT_Methodref, CONSTANT_InterfaceMethodref ->
+						new ConstantPoolMethodRef(offset, i, constantTag, VarInt.readInt(in), VarInt.readInt(in));
+				case CONSTANT_NameAndType ->
+						new ConstantPoolNameAndType(offset, i, constantTag, VarInt.readInt(in), VarInt.readInt(in));
+				case CONSTANT_Dynamic, CONSTANT_InvokeDynamic ->
+						new ConstantPoolDynamic(offset, i, constantTag, VarInt.readInt(in), VarInt.readInt(in));
+				case CONSTANT_MethodHandle -> new ConstantPoolMethodHandle(offset, i, constantTag,
+						Byte.toUnsignedInt(in.get()), VarInt.readInt(in));
+			});
+			if (constantTag.isTwoEntriesTakeUp()) {
+				constantPool.add(null);
+				i++;
+			}
+		}
+		return constantPool;
+	}
+
+	private List<Member> readMembers(ByteBuffer in) {
+		int count = VarInt.readInt(in);
+		List<Member> members = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			members.add(new Member(VarInt.readInt(in), VarInt.readInt(in), readString(in), readString(in),
+					readAttributes(in)));
+		}
+		return List.copyOf(members);
+	}
+
+	private List<AttributeEntry> readAttributes(ByteBuffer in) {
+		int count = VarInt.readInt(in);
+		List<AttributeEntry> attributes = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			String name = readString(in);
+			int offset = VarInt.readInt(in);
+			int length = VarInt.readInt(in);
+			Code code = null;
+			if (in.get() != 0) {
+				int maxStack = VarInt.readInt(in);
+				int maxLocals = VarInt.readInt(in);
+				int codeOffset = VarInt.readInt(in);
+				int codeLength = VarInt.readInt(in);
+				ByteBuffer bytes = in.slice(in.position(), codeLength).asReadOnlyBuffer();
+				in.position(in.position() + codeLength);
+				code = new Code(maxStack, maxLocals, codeOffset, bytes, readAttributes(in));
+			}
+			attributes.add(new AttributeEntry(name, offset, length, code));
+		}
+		return List.copyOf(attributes);
+	}
+
+	/**
+	 * @param constantPool index 0 and the second slot of long and double entries are null
+	 * @param superName    null for {@code java/lang/Object}
+	 */
+	public record ClassEntry(String source, int minorVersion, int majorVersion, List<ConstantPoolEntry> constantPool,
+	                         int accessFlags, String name, String superName, List<String> interfaces,
+	                         List<Member> fields, List<Member> methods, List<AttributeEntry> attributes) {
+
+		/**
+		 * @return the method with the name and descriptor, or null
+		 */
+		public Member findMethod(String name, String descriptor) {
+			return methods.stream().filter(m -> m.name().equals(name) && m.descriptor().equals(descriptor))
+					.findFirst().orElse(null);
+		}
+	}
+
+	/**
+	 * @param offset offset of the access flags in the class file
+	 */
+	public record Member(int offset, int accessFlags, String name, String descriptor,
+	                     List<AttributeEntry> attributes) {
+
+		/**
+		 * @return the {@code Code} attribute of a method, null for fields, abstract and native methods
+		 */
+		public Code getCode() {
+			return attributes.stream().map(AttributeEntry::code).filter(Objects::nonNull).findFirst().orElse(null);
+		}
+	}
+
+	/**
+	 * @param offset offset of the attribute name index in the class file
+	 * @param code   the content of a {@code Code} attribute, null for other attributes
+	 */
+	public record AttributeEntry(String name, int offset, int length, Code code) {
+	}
+
+	/**
+	 * @param codeOffset offset of the first code byte in the class file
+	 * @param code       the code bytes, read-only
+	 */
+	public record Code(int maxStack, int maxLocals, int codeOffset, ByteBuffer code, List<AttributeEntry> attributes) {
+
+		public Bytecode bytecode() {
+			return Bytecode.of(code.duplicate(), codeOffset);
+		}
+	}
+}
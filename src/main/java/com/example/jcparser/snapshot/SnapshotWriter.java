@@ -0,0 +1,291 @@
+package com.example.jcparser.snapshot;
+
+import com.example.jcparser.ClassFileVisitor;
+import com.example.jcparser.Parser.U2;
+import com.example.jcparser.Parser.U2Array;
+import com.example.jcparser.Parser.U4;
+import com.example.jcparser.attribute.Attribute;
+import com.example.jcparser.attribute.instruction.CodeAttribute;
+import com.example.jcparser.constantpool.*;
+import com.example.jcparser.snapshot.Snapshot.AttributeEntry;
+import com.example.jcparser.snapshot.Snapshot.ClassEntry;
+import com.example.jcparser.snapshot.Snapshot.Code;
+import com.example.jcparser.snapshot.Snapshot.Member;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Collects parsed class files and writes them as one {@link Snapshot}. Every class file is recorded by its own
+ * visitor from {@link #newClass(String)}, so class files may be parsed concurrently. Classes are written
+ * sorted by source and strings are numbered in the order they are written, the same input gives the same bytes.
+ */
+public class SnapshotWriter {
+	private final List<ClassEntry> classes = new ArrayList<>();
+
+	/**
+	 * @param source name of the class file, like its path or archive entry
+	 * @return visitor that adds the class to the snapshot when the class file is read to the end
+	 */
+	public ClassFileVisitor newClass(String source) {
+		return new Recorder(source);
+	}
+
+	public synchronized int size() {
+		return classes.size();
+	}
+
+	public void write(Path path) throws IOException {
+		try (OutputStream out = Files.newOutputStream(path)) {
+			out.write(toByteArray());
+		}
+	}
+
+	public byte[] toByteArray() {
+		List<ClassEntry> sorted;
+		synchronized (this) {
+			sorted = new ArrayList<>(classes);
+		}
+		sorted.sort(Comparator.comparing(ClassEntry::source));
+		Map<String, Integer> strings = new LinkedHashMap<>();
+		ByteArrayOutputStream index = new ByteArrayOutputStream();
+		ByteArrayOutputStream records = new ByteArrayOutputStream();
+		for (ClassEntry entry : sorted) {
+			VarInt.write(index, id(strings, entry.source()));
+			VarInt.write(index, id(strings, entry.name()));
+			int start = records.size();
+			writeClass(records, strings, entry);
+			VarInt.write(index, records.size() - start);
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream(index.size() + records.size() + strings.size() * 16);
+		writeFixed(out, Snapshot.MAGIC, Integer.BYTES);
+		VarInt.write(out, Snapshot.VERSION);
+		VarInt.write(out, strings.size());
+		for (String string : strings.keySet()) {
+			byte[] bytes = ModifiedUtf8.encode(string);
+			VarInt.write(out, bytes.length);
+			out.writeBytes(bytes);
+		}
+		VarInt.write(out, sorted.size());
+		out.writeBytes(index.toByteArray());
+		IntStream.range(0, sorted.size()).boxed()
+				.sorted(Comparator.comparing((Integer i) -> sorted.get(i).name(),
+						Comparator.nullsFirst(Comparator.naturalOrder())))
+				.forEach(i -> VarInt.write(out, i));
+		out.writeBytes(records.toByteArray());
+		return out.toByteArray();
+	}
+
+	private static int id(Map<String, Integer> strings, String string) {
+		return string == null ? 0 : strings.computeIfAbsent(string, s -> strings.size() + 1);
+	}
+
+	private static void writeClass(ByteArrayOutputStream out, Map<String, Integer> strings, ClassEntry entry) {
+		VarInt.write(out, entry.minorVersion());
+		VarInt.write(out, entry.majorVersion());
+		writeConstantPool(out, strings, entry.constantPool());
+		VarInt.write(out, entry.accessFlags());
+		VarInt.write(out, id(strings, entry.name()));
+		VarInt.write(out, id(strings, entry.superName()));
+		VarInt.write(out, entry.interfaces().size());
+		for (String name : entry.interfaces()) {
+			VarInt.write(out, id(strings, name));
+		}
+		writeMembers(out, strings, entry.fields());
+		writeMembers(out, strings, entry.methods());
+		writeAttributes(out, strings, entry.attributes());
+	}
+
+	private static void writeConstantPool(ByteArrayOutputStream out, Map<String, Integer> strings,
+	                                      List<ConstantPoolEntry> constantPool) {
+		VarInt.write(out, constantPool.size());
+		int offset = 0;
+		for (ConstantPoolEntry cpe : constantPool) {
+			if (cpe == null) {
+				continue;
+			}
+			out.write(cpe.getConstantTag().getTag());
+			VarInt.write(out, cpe.getOffset() - offset);
+			offset = cpe.getOffset();
+			switch (cpe.getConstantTag()) {
+				case CONSTANT_Utf8 -> VarInt.write(out, id(strings, ((ConstantPoolUtf8) cpe).getValue()));
+				case CONSTANT_Integer -> VarInt.writeSigned(out, ((ConstantPoolInteger) cpe).getValue());
+				case CONSTANT_Float ->
+						writeFixed(out, Float.floatToRawIntBits(((ConstantPoolFloat) cpe).getValue()), Integer.BYTES);
+				case CONSTANT_Long -> VarInt.writeSigned(out, ((ConstantPoolLong) cpe).getValue());
+				case CONSTANT_Double ->
+						writeFixed(out, Double.doubleToRawLongBits(((ConstantPoolDouble) cpe).getValue()), Long.BYTES);
+				case CONSTANT_Class, CONSTANT_String, CONSTANT_MethodType, CONSTANT_Module, CONSTANT_Package ->
+						VarInt.write(out, ((ConstantPoolString) cpe).getStringIndex());
+				case CONSTANT_Fieldref, CONSTANT_Methodref, CONSTANT_InterfaceMethodref -> {
+					VarInt.write(out, ((ConstantPoolMethodRef) cpe).getClassIndex());
+					VarInt.write(out, ((ConstantPoolMethodRef) cpe).getNameAndTypeIndex());
+				}
+				case CONSTANT_NameAndType -> {
+					VarInt.write(out, ((ConstantPoolNameAndType) cpe).getNameIndex());
+					VarInt.write(out, ((ConstantPoolNameAndType) cpe).getDescriptorIndex());
+				}
+				case CONSTANT_Dynamic, CONSTANT_InvokeDynamic -> {
+					VarInt.write(out, ((ConstantPoolDynamic) cpe).getBootstrapMethodAttrIndex());
+					VarInt.write(out, ((ConstantPoolDynamic) cpe).getNameAndTypeIndex());
+				}
+				case CONSTANT_MethodHandle -> {
+					out.write(((ConstantPoolMethodHandle) cpe).getReferenceKind());
+					VarInt.write(out, ((ConstantPoolMethodHandle) cpe).getReferenceIndex());
+				}
+			}
+		}
+	}
+
+	private static void writeMembers(ByteArrayOutputStream out, Map<String, Integer> strings, List<Member> members) {
+		VarInt.write(out, members.size());
+		for (Member member : members) {
+			VarInt.write(out, member.offset());
+			VarInt.write(out, member.accessFlags());
+			VarInt.write(out, id(strings, member.name()));
+			VarInt.write(out, id(strings, member.descriptor()));
+			writeAttributes(out, strings, member.attributes());
+		}
+	}
+
+	private static void writeAttributes(ByteArrayOutputStream out, Map<String, Integer> strings,
+	                                    List<AttributeEntry> attributes) {
+		VarInt.write(out, attributes.size());
+		for (AttributeEntry attribute : attributes) {
+			VarInt.write(out, id(strings, attribute.name()));
+			VarInt.write(out, attribute.offset());
+			VarInt.write(out, attribute.length());
+			Code code = attribute.code();
+			out.write(code == null ? 0 : 1);
+			if (code != null) {
+				VarInt.write(out, code.maxStack());
+				VarInt.write(out, code.maxLocals());
+				VarInt.write(out, code.codeOffset());
+				ByteBuffer bytes = code.code().duplicate();
+				VarInt.write(out, bytes.remaining());
+				byte[] array = new byte[bytes.remaining()];
+				bytes.get(array);
+				out.writeBytes(array);
+				writeAttributes(out, strings, code.attributes());
+			}
+		}
+	}
+
+	private static void writeFixed(ByteArrayOutputStream out, long value, int bytes) {
+		for (int shift = (bytes - 1) * Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+			out.write((int) (value >>> shift));
+		}
+	}
+
+	private synchronized void add(ClassEntry entry) {
+		classes.add(entry);
+	}
+
+	private class Recorder implements ClassFileVisitor {
+		private final String source;
+		private final List<Member> fields = new ArrayList<>();
+		private final List<Member> methods = new ArrayList<>();
+		private final List<AttributeEntry> classAttributes = new ArrayList<>();
+		private List<ConstantPoolEntry> constantPool = List.of();
+		private List<AttributeEntry> attributes = classAttributes;
+		private List<String> interfaces = List.of();
+		private int minorVersion;
+		private int majorVersion;
+		private int accessFlags;
+		private String name;
+		private String superName;
+
+		Recorder(String source) {
+			this.source = source;
+		}
+
+		@Override
+		public void visitHeader(U4 magic, U2 minorVersion, U2 majorVersion) {
+			this.minorVersion = minorVersion.getValue();
+			this.majorVersion = majorVersion.getValue();
+		}
+
+		@Override
+		public void visitConstantPool(List<ConstantPoolEntry> constantPool) {
+			this.constantPool = Collections.unmodifiableList(new ArrayList<>(constantPool));
+		}
+
+		@Override
+		public void visitClass(U2 accessFlags, U2 thisClass, U2 superClass) {
+			this.accessFlags = accessFlags.getValue();
+			this.name = className(thisClass.getValue());
+			this.superName = className(superClass.getValue());
+		}
+
+		@Override
+		public void visitInterfaces(U2Array interfaces) {
+			List<String> names = new ArrayList<>();
+			for (U2 u2 : interfaces.array()) {
+				names.add(className(u2.getValue()));
+			}
+			this.interfaces = List.copyOf(names);
+		}
+
+		@Override
+		public void visitField(U2 accessFlags, U2 nameIndex, U2 descriptorIndex, U2 attributesCount) {
+			fields.add(member(accessFlags, nameIndex, descriptorIndex));
+		}
+
+		@Override
+		public void visitMethod(U2 accessFlags, U2 nameIndex, U2 descriptorIndex, U2 attributesCount) {
+			methods.add(member(accessFlags, nameIndex, descriptorIndex));
+		}
+
+		/**
+		 * The member is completed by the attributes visited after it.
+		 */
+		private Member member(U2 accessFlags, U2 nameIndex, U2 descriptorIndex) {
+			attributes = new ArrayList<>();
+			return new Member(accessFlags.getOffset(), accessFlags.getValue(), utf8(nameIndex.getValue()),
+					utf8(descriptorIndex.getValue()), Collections.unmodifiableList(attributes));
+		}
+
+		@Override
+		public void visitAttributesCount(U2 count) {
+			attributes = classAttributes;
+		}
+
+		@Override
+		public void visitAttribute(Attribute attribute) {
+			attributes.add(attributeEntry(attribute));
+		}
+
+		private AttributeEntry attributeEntry(Attribute attribute) {
+			Code code = null;
+			if (attribute instanceof CodeAttribute codeAttribute) {
+				List<AttributeEntry> nested = codeAttribute.getAttributes().stream().map(this::attributeEntry).toList();
+				code = new Code(codeAttribute.getMaxStack().getValue(), codeAttribute.getMaxLocals().getValue(),
+						codeAttribute.getCodeLength().getOffset() + U4.BYTES,
+						ByteBuffer.wrap(codeAttribute.getBytecode().toByteArray()).asReadOnlyBuffer(), nested);
+			}
+			return new AttributeEntry(utf8(attribute.getNameIndex().getValue()), attribute.getNameIndex().getOffset(),
+					attribute.getLength().getValue(), code);
+		}
+
+		@Override
+		public void visitEnd() {
+			add(new ClassEntry(source, minorVersion, majorVersion, constantPool, accessFlags, name, superName,
+					interfaces, List.copyOf(fields), List.copyOf(methods), List.copyOf(classAttributes)));
+		}
+
+		private String utf8(int index) {
+			return constantPool.get(index) instanceof ConstantPoolUtf8 utf8 ? utf8.getValue() : null;
+		}
+
+		private String className(int index) {
+			return index != 0 && constantPool.get(index) instanceof ConstantPoolString classEntry
+					? utf8(classEntry.getStringIndex()) : null;
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package com.example.jcparser.snapshot;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Unsigned LEB128 variable length integers: seven bits per byte, low bits first,
+ * the high bit set on every byte but the last. Signed values are zigzag encoded first.
+ */
+public final class VarInt {
+
+	private VarInt() {
+	}
+
+	public static void write(ByteArrayOutputStream out, long value) {
+		while ((value & ~0x7FL) != 0) {
+			out.write((int) (value & 0x7F | 0x80));
+			value >>>= 7;
+		}
+		out.write((int) value);
+	}
+
+	public static void writeSigned(ByteArrayOutputStream out, long value) {
+		write(out, value << 1 ^ value >> 63);
+	}
+
+	public static long read(ByteBuffer buffer) {
+		long value = 0;
+		for (int shift = 0; ; shift += 7) {
+			byte b = buffer.get();
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+	}
+
+	public static int readInt(ByteBuffer buffer) {
+		return (int) read(buffer);
+	}
+
+	public static long readSigned(ByteBuffer buffer) {
+		long value = read(buffer);
+		return value >>> 1 ^ -(value & 1);
+	}
+}
@@ -5,5 +5,7 @@ module com.example.jcparser.module {
 	exports com.example.jcparser.attribute.stackmapframe;
 	exports com.example.jcparser.attribute.instruction;
 	exports com.example.jcparser.constantpool;
+	exports com.example.jcparser.snapshot;
+	exports com.example.jcparser.index;
 	requires org.apache.commons.text;
 }
\ No newline at end of file
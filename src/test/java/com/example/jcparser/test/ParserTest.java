@@ -1,26 +1,54 @@
 package com.example.jcparser.test;
 
+import com.example.jcparser.ArchiveParser;
+import com.example.jcparser.ClassFile;
+import com.example.jcparser.ClassFileVisitor;
+import com.example.jcparser.JsonPrint;
+import com.example.jcparser.JsonWriter;
+import com.example.jcparser.ModelCache;
 import com.example.jcparser.Options;
+import com.example.jcparser.OutputSink;
+import com.example.jcparser.ParseCache;
 import com.example.jcparser.Parser;
 import com.example.jcparser.Print;
+import com.example.jcparser.attribute.Attribute;
+import com.example.jcparser.attribute.StackMapTableAttribute;
+import com.example.jcparser.attribute.instruction.Bytecode;
+import com.example.jcparser.attribute.instruction.CodeAttribute;
 import com.example.jcparser.attribute.instruction.InstructionSet;
 import com.example.jcparser.attribute.stackmapframe.FrameType;
 import com.example.jcparser.constantpool.ConstantPoolEntry;
 import com.example.jcparser.constantpool.ConstantPoolString;
 import com.example.jcparser.constantpool.ConstantPoolUtf8;
+import com.example.jcparser.constantpool.ModifiedUtf8;
+import com.example.jcparser.index.AnnotationScanner;
+import com.example.jcparser.index.CallGraph;
+import com.example.jcparser.index.ClassHierarchy;
+import com.example.jcparser.index.ConstantSearch;
+import com.example.jcparser.index.SymbolIndex;
+import com.example.jcparser.index.SymbolIndexWriter;
+import com.example.jcparser.snapshot.Snapshot;
+import com.example.jcparser.snapshot.SnapshotWriter;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static com.example.jcparser.ConsoleColors.RED;
 import static com.example.jcparser.ConsoleColors.RESET;
@@ -34,6 +62,7 @@ import static org.junit.jupiter.params.provider.Arguments.arguments;
 class ParserTest {
 	public static final int CONSTANT_COUNT_LINE = 3;
 	public static final String COMMENT_PREFIX = "#";
+	public static final String NON_ASCII_METHOD = "testMéthodWithParameter";
 	private final ByteArrayOutputStream outStream = new ByteArrayOutputStream();
 	private final ByteArrayOutputStream errStream = new ByteArrayOutputStream();
 	private final PrintStream originalOut = System.out;
@@ -76,6 +105,32 @@ class ParserTest {
 		return argumentsList.stream();
 	}
 
+	static byte[] readTestClass() throws IOException {
+		return readTestClass("");
+	}
+
+	/**
+	 * @param nested suffix of a nested class of {@code TestClass}, like {@code $TestRecord}, empty for the class itself
+	 */
+	static byte[] readTestClass(String nested) throws IOException {
+		ClassLoader classloader = Thread.currentThread().getContextClassLoader();
+		String resource = "classes/com/example/jcparser/test/TestClass" + nested + ".class";
+		try (InputStream is = Objects.requireNonNull(classloader.getResourceAsStream(resource), resource)) {
+			return is.readAllBytes();
+		}
+	}
+
+	/**
+	 * @return {@code TestClass} with {@code testMethodWithParameters} renamed to {@link #NON_ASCII_METHOD}, a name of
+	 * the same byte count
+	 */
+	static byte[] readNonAsciiTestClass() throws IOException {
+		byte[] bytes = readTestClass();
+		int start = new String(bytes, StandardCharsets.ISO_8859_1).indexOf("\u0000\u0018testMethodWithParameters");
+		System.arraycopy(NON_ASCII_METHOD.getBytes(StandardCharsets.UTF_8), 0, bytes, start + 2, 24);
+		return bytes;
+	}
+
 	@ParameterizedTest(name = "{index} File {0}")
 	@MethodSource("getClassFiles")
 	void whole_file_parsed(String path, String[] lines) throws IOException {
@@ -173,5 +228,543 @@ class ParserTest {
 			String[] lines = outStream.toString().split("\n");
 			assertFalse(lines[1].contains("(01)"), "Constant pool reference index doesn't hide");
 		}
+
+		@Test
+		void modified_utf8() throws IOException {
+			String[] strings = {"", "ascii", "null \u0000 char",
+					"\u043A\u0438\u0440\u0438\u043B\u043B\u0438\u0446\u0430", "\uD83D\uDE00 surrogate pair"};
+			for (String string : strings) {
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				try (DataOutputStream dos = new DataOutputStream(bytes)) {
+					dos.writeUTF(string);
+				}
+				ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+				assertEquals(string, ModifiedUtf8.decode(buffer, Short.BYTES, buffer.getShort(0)));
+				ByteBuffer direct = ByteBuffer.allocateDirect(buffer.capacity()).put(buffer.rewind());
+				assertEquals(string, ModifiedUtf8.decode(direct, Short.BYTES, direct.getShort(0)));
+			}
+			assertThrows(IllegalArgumentException.class,
+					() -> ModifiedUtf8.decode(ByteBuffer.wrap(new byte[]{(byte) 0xE0, (byte) 0x80}), 0, 2));
+		}
+
+		@Test
+		void output_sink() {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			OutputSink sink = new OutputSink(bytes);
+			StringBuilder expected = new StringBuilder();
+			for (int value : new int[]{0, 7, 0xAB, 0x1234, 0xCAFEBABE}) {
+				sink.hex(value, 4).append(' ').splitHex(value, 4).append(' ').paddedHex(value, 5).append(' ')
+						.decimal(value, 2).newLine();
+				expected.append(String.format("%04X %02X %02X %02X %02X %5X %02d\n", value, value >>> 24,
+						value >>> 16 & 0xFF, value >>> 8 & 0xFF, value & 0xFF, value, value));
+			}
+			for (String title : new String[]{"", "  ", "title", "  title  ", "line\nline"}) {
+				for (int indent : new int[]{-6, 0, 6}) {
+					sink.indented(title, indent).newLine();
+					expected.append(title.indent(indent).stripTrailing()).append('\n');
+				}
+			}
+			assertEquals(0, bytes.size());
+			sink.flush();
+			assertEquals(expected.toString(), bytes.toString());
+		}
+
+		@Test
+		void packed_bytecode() {
+			byte[] code = {0, 0,
+					(byte) 0xC4, 0x15, 0x01, 0x00,
+					(byte) 0xC4, (byte) 0x84, 0x00, 0x01, 0x00, 0x05,
+					(byte) 0xAA, 0, 0, 0, 0, 0x20, 0, 0, 0, 0, 0, 0, 0, 1, 0, 0, 0, 0x22, 0, 0, 0, 0x24,
+					(byte) 0xAB, 0, 0, 0, 0, 0, 0, 0x14, 0, 0, 0, 1, 0, 0, 0, 7, 0, 0, 0, 0x17,
+					0x11, 0x12, 0x34,
+					(byte) 0xB1};
+			ByteBuffer buffer = ByteBuffer.wrap(code).position(2);
+			Bytecode bytecode = Bytecode.read(buffer, code.length - 2);
+			assertEquals(code.length, buffer.position());
+			assertEquals(6, bytecode.size());
+			assertArrayEquals(new int[]{2, 6, 12, 34, 54, 57},
+					IntStream.range(0, bytecode.size()).map(bytecode::getOffset).toArray());
+			assertEquals(0x100, bytecode.getU2Operand(0, 1));
+			assertEquals(5, bytecode.getOperandsLength(1));
+			assertEquals(0x22, bytecode.getIntOperand(2, 13));
+			assertEquals(7, bytecode.getIntOperand(3, 11));
+			assertEquals(0x1234, bytecode.getU2Operand(4, 0));
+			assertEquals(InstructionSet.RETURN.getOpcode(), bytecode.getOpcode(5));
+			assertArrayEquals(new int[]{0x12, 0x34}, bytecode.get(4).operands());
+		}
+
+		@Test
+		void visitor_without_attributes() throws IOException {
+			byte[] bytes = readTestClass();
+			List<String> methods = new ArrayList<>();
+			List<Attribute> attributes = new ArrayList<>();
+			outStream.reset();
+			new Parser(new ClassFileVisitor() {
+				@Override
+				public boolean acceptAttribute(String name) {
+					return false;
+				}
+
+				@Override
+				public void visitMethod(Parser.U2 accessFlags, Parser.U2 nameIndex, Parser.U2 descriptorIndex,
+				                        Parser.U2 attributesCount) {
+					methods.add(((ConstantPoolUtf8) nameIndex.getCpe()).getUtf8());
+				}
+
+				@Override
+				public void visitAttribute(Attribute attribute) {
+					attributes.add(attribute);
+				}
+			}).process(ByteBuffer.wrap(bytes));
+			assertTrue(methods.contains("main"), "Method main not visited");
+			assertTrue(attributes.isEmpty(), "Rejected attributes visited");
+			assertEquals(0, outStream.size(), "Visitor printed output");
+		}
+
+		@Test
+		void json_lines() throws IOException {
+			byte[] bytes = readTestClass();
+			ByteArrayOutputStream json = new ByteArrayOutputStream();
+			new Parser(new JsonPrint(new Options(), new PrintStream(json), "TestClass")).process(ByteBuffer.wrap(bytes));
+			String[] lines = json.toString().split("\n");
+			assertEquals(1, lines.length, "One line per class");
+			assertTrue(lines[0].startsWith("{\"source\":\"TestClass\",\"length\":" + bytes.length + ","));
+			assertTrue(lines[0].endsWith("]}"));
+			assertTrue(lines[0].contains("\"thisClass\":\"com/example/jcparser/test/TestClass\""));
+			assertTrue(lines[0].contains("{\"offset\":"), "Instructions");
+			assertTrue(lines[0].contains("\"tag\":\"CONSTANT_Float\",\"value\":3.3333}"), "Float not widened");
+
+			byte[] patched = "l\"cal strég".getBytes(StandardCharsets.UTF_8);
+			int start = new String(bytes, StandardCharsets.ISO_8859_1).indexOf("local string");
+			System.arraycopy(patched, 0, bytes, start, patched.length);
+			json.reset();
+			new Parser(new JsonPrint(new Options(), new PrintStream(json), "TestClass")).process(ByteBuffer.wrap(bytes));
+			assertTrue(json.toString(StandardCharsets.UTF_8).contains("\"value\":\"l\\\"cal strég\""),
+					"Escaped once");
+
+			ByteArrayOutputStream escaped = new ByteArrayOutputStream();
+			OutputSink sink = new OutputSink(escaped);
+			new JsonWriter(sink).beginObject().name("s").value("q\"\\\n\u0001\uD800").name("n").value(Double.NaN)
+					.name("a").beginArray().value(1).value(true).endArray().endObject().endLine();
+			sink.flush();
+			assertEquals("{\"s\":\"q\\\"\\\\\\n\\u0001\\ud800\",\"n\":\"NaN\",\"a\":[1,true]}\n", escaped.toString());
+		}
+
+		@Test
+		void snapshot(@TempDir Path tempDir) throws IOException {
+			byte[] bytes = readTestClass();
+			Parser parser = new Parser(new ClassFileVisitor() {
+			});
+			parser.process(ByteBuffer.wrap(bytes));
+			SnapshotWriter snapshotWriter = new SnapshotWriter();
+			new Parser(snapshotWriter.newClass("TestClass.class")).process(ByteBuffer.wrap(bytes));
+			Path file = tempDir.resolve("test.jcps");
+			snapshotWriter.write(file);
+			assertArrayEquals(snapshotWriter.toByteArray(), Files.readAllBytes(file), "Same bytes for the same input");
+			assertTrue(Files.size(file) < bytes.length, "Snapshot is smaller than the class file");
+
+			Snapshot snapshot = Snapshot.open(file);
+			assertEquals(1, snapshot.size());
+			assertEquals(0, snapshot.indexOf("com/example/jcparser/test/TestClass"));
+			Snapshot.ClassEntry entry = snapshot.get(0);
+			assertEquals("TestClass.class", entry.source());
+			assertEquals("java/lang/Object", entry.superName());
+			List<ConstantPoolEntry> constantPool = parser.getConstantPool();
+			assertEquals(constantPool.size(), entry.constantPool().size());
+			for (int i = 1; i < constantPool.size(); i++) {
+				ConstantPoolEntry expected = constantPool.get(i);
+				ConstantPoolEntry actual = entry.constantPool().get(i);
+				if (expected == null) {
+					assertNull(actual);
+				} else {
+					assertEquals(expected.getConstantTag(), actual.getConstantTag());
+					assertEquals(expected.getOffset(), actual.getOffset());
+				}
+			}
+			Snapshot.Member main = entry.findMethod("main", "([Ljava/lang/String;)V");
+			assertNotNull(main, "Method main");
+			Snapshot.Code code = main.getCode();
+			int codeOffset = code.codeOffset();
+			assertArrayEquals(Arrays.copyOfRange(bytes, codeOffset, codeOffset + code.code().remaining()),
+					code.bytecode().toByteArray());
+			assertEquals(codeOffset, code.bytecode().getOffset(0));
+
+			SnapshotWriter nestedWriter = new SnapshotWriter();
+			String[] nested = {"$TestRecord", "$ConsolePrintTest", "$TestSealed", "$NonNull", ""};
+			for (int i = 0; i < nested.length; i++) {
+				new Parser(nestedWriter.newClass(i + ".class")).process(ByteBuffer.wrap(readTestClass(nested[i])));
+			}
+			Snapshot classes = Snapshot.of(ByteBuffer.wrap(nestedWriter.toByteArray()));
+			for (int i = 0; i < nested.length; i++) {
+				assertEquals(i, classes.indexOf("com/example/jcparser/test/TestClass" + nested[i]));
+			}
+			assertEquals(-1, classes.indexOf("com/example/jcparser/test/TestClass$Missing"));
+		}
+
+		@Test
+		void parse_cache(@TempDir Path tempDir) throws IOException {
+			ByteBuffer classFile = ByteBuffer.wrap(new byte[]{(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 1});
+			String key = ParseCache.key(classFile, "text");
+			assertEquals(key, ParseCache.key(classFile.duplicate(), "text"));
+			assertNotEquals(key, ParseCache.key(classFile, "json"));
+			assertNotEquals(key, ParseCache.key(ByteBuffer.wrap(new byte[]{(byte) 0xCA, (byte) 0xFE}), "text"));
+
+			ParseCache cache = new ParseCache(tempDir, 10);
+			assertNull(cache.get(key));
+			cache.put(key, new byte[]{1, 2, 3, 4, 5, 6});
+			assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6}, cache.get(key));
+			cache.put("other", new byte[]{7, 8, 9, 10, 11, 12});
+			assertNull(cache.get(key), "Least recently used entry evicted");
+			assertEquals(6, new ParseCache(tempDir, 10).getTotalBytes(), "Entries survive a restart");
+			assertEquals(1, cache.getHits());
+			assertEquals(2, cache.getMisses());
+		}
+
+		@Test
+		void reused_parser() throws IOException {
+			byte[] bytes = readTestClass();
+			Parser parser = new Parser(null);
+			String[] outputs = new String[2];
+			for (int i = 0; i < outputs.length; i++) {
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				Print print = new Print(new Options(), new PrintStream(out));
+				parser.reset(print).process(ByteBuffer.wrap(bytes));
+				print.flush();
+				outputs[i] = out.toString();
+			}
+			assertEquals(outputs[0], outputs[1], "Second class file parsed like the first one");
+			int constantPoolSize = parser.getConstantPool().size();
+			parser.process(ByteBuffer.wrap(bytes));
+			assertEquals(constantPoolSize, parser.getConstantPool().size());
+			parser.reset(new ClassFileVisitor() {
+			});
+			assertTrue(parser.getConstantPool().isEmpty());
+		}
+
+		@Test
+		void class_file_model() throws IOException {
+			byte[] bytes = readTestClass();
+			ClassFile classFile = Parser.parse(bytes);
+			assertEquals("com/example/jcparser/test/TestClass", classFile.getName());
+			assertEquals("java/lang/Object", classFile.getSuperName());
+			assertEquals(bytes.length, classFile.length());
+			assertTrue(classFile.methods().stream().anyMatch(m -> m.getName().equals("<init>") && m.getCode() != null));
+			assertThrows(UnsupportedOperationException.class, () -> classFile.fields().clear());
+
+			ByteArrayOutputStream parsed = new ByteArrayOutputStream();
+			Print print = new Print(new Options(), new PrintStream(parsed));
+			new Parser(print).process(ByteBuffer.wrap(bytes));
+			ByteArrayOutputStream rendered = new ByteArrayOutputStream();
+			new Print(new Options(), new PrintStream(rendered)).print(classFile);
+			assertEquals(parsed.toString(), rendered.toString(), "Model rendered like the parsed class file");
+
+			CodeAttribute init = classFile.methods().get(0).getCode();
+			byte[] code = init.getBytecode().toByteArray();
+			Arrays.fill(bytes, (byte) 0);
+			assertArrayEquals(code, init.getBytecode().toByteArray(), "Model parsed from a copy");
+			assertNotSame(classFile.interfaces().array(), classFile.interfaces().array());
+			int nested = init.getAttributes().size();
+			assertThrows(UnsupportedOperationException.class, () -> init.getAttributes().clear());
+			assertEquals(nested, classFile.methods().get(0).getCode().getAttributes().size(), "Shared model unchanged");
+			StackMapTableAttribute stackMapTable = classFile.methods().stream().map(ClassFile.Member::getCode)
+					.filter(Objects::nonNull).flatMap(c -> c.getAttributes().stream())
+					.filter(StackMapTableAttribute.class::isInstance).map(StackMapTableAttribute.class::cast)
+					.findFirst().orElseThrow();
+			assertThrows(UnsupportedOperationException.class, () -> stackMapTable.getEntries().clear());
+
+			assertTrue(Parser.parse(readNonAsciiTestClass()).methods().stream()
+					.anyMatch(m -> m.getName().equals(NON_ASCII_METHOD)), "Name not escaped");
+		}
+
+		@Test
+		void model_cache(@TempDir Path tempDir) throws IOException {
+			Path file = Files.write(tempDir.resolve("TestClass.class"), readTestClass());
+			ModelCache<ClassFile> cache = new ModelCache<>(1, Long.MAX_VALUE, Parser::parseOwned);
+			ClassFile entry = cache.get(file);
+			assertEquals("com/example/jcparser/test/TestClass", entry.getName());
+			assertSame(entry, cache.get(file));
+			ByteBuffer classFile = ByteBuffer.wrap(Files.readAllBytes(file));
+			assertNotSame(entry, cache.get(classFile), "Other key evicts the only entry");
+			assertSame(cache.get(classFile), cache.get(classFile.duplicate()));
+			assertEquals(0, classFile.position());
+			assertEquals(1, cache.size());
+			assertEquals(Files.size(file) * ModelCache.RETAINED_BYTES_PER_CLASS_BYTE, cache.getRetainedBytes());
+			assertEquals(3, cache.getHits());
+			assertEquals(2, cache.getMisses());
+			assertEquals(1, cache.getEvictions());
+
+			ModelCache<byte[]> arrays = new ModelCache<>(2, Long.MAX_VALUE, bytes -> bytes);
+			assertNotSame(classFile.array(), arrays.get(classFile), "Parsed from a private copy");
+			assertArrayEquals(classFile.array(), arrays.get(file), "Read into the heap, not mapped");
+		}
+
+		@Test
+		void parse_archive(@TempDir Path tempDir) throws IOException {
+			String entryName = "com/example/jcparser/test/TestClass.class";
+			Path jar = tempDir.resolve("test.jar");
+			try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(jar))) {
+				zos.putNextEntry(new ZipEntry(entryName));
+				zos.write(readTestClass());
+				zos.closeEntry();
+				zos.putNextEntry(new ZipEntry("META-INF/MANIFEST.MF"));
+				zos.closeEntry();
+			}
+			outStream.reset();
+			Parser.main(new String[]{jar.toString()});
+			String[] lines = outStream.toString().split("\n");
+			assertTrue(lines[0].contains(jar + "!/" + entryName), "Archive entry header");
+			assertTrue(lines[1].contains("CA FE BA BE"), "Archive entry parsed");
+		}
+
+		@Test
+		void switch_data() throws IOException {
+			byte[] bytes = readTestClass();
+			String lookupSwitch = "\u00AB\u0000\u0000\u0000\u0000\u0000\u0000K\u0000\u0000\u0000\u0004\u0000";
+			int start = new String(bytes, StandardCharsets.ISO_8859_1).indexOf(lookupSwitch);
+			assertTrue(start > 0, "LOOKUPSWITCH of testMethodWithParameters");
+			bytes[start + 12] = (byte) 0xCB;
+			ByteArrayOutputStream dump = new ByteArrayOutputStream();
+			Print print = new Print(new Options(), new PrintStream(dump));
+			new Parser(print).process(ByteBuffer.wrap(bytes));
+			print.flush();
+			assertTrue(dump.toString().contains(" CB 00 00 01 00 00 00 39 "), "Match starting with an undefined opcode");
+		}
+
+		@Test
+		void truncated_class(@TempDir Path tempDir) throws IOException {
+			byte[] truncated = Arrays.copyOf(readTestClass(), 4000);
+			Path directory = Files.createDirectory(tempDir.resolve("classes"));
+			Files.write(directory.resolve("Truncated.class"), truncated);
+			Files.write(directory.resolve("TestClass.class"), readTestClass());
+			Path jar = tempDir.resolve("truncated.jar");
+			try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(jar))) {
+				zos.putNextEntry(new ZipEntry("Truncated.class"));
+				zos.write(truncated);
+				zos.closeEntry();
+			}
+			for (Path path : List.of(directory, jar)) {
+				outStream.reset();
+				errStream.reset();
+				Parser.main(new String[]{path.toString()});
+				assertTrue(errStream.toString().contains("Truncated.class java.nio.BufferUnderflowException"),
+						"Reported without a message: " + errStream);
+				assertFalse(outStream.toString().contains("Truncated.class"), "Partial dump dropped");
+			}
+			assertTrue(outStream.toString().isEmpty());
+			errStream.reset();
+		}
+
+		@Test
+		void symbol_index(@TempDir Path tempDir) throws IOException {
+			byte[] bytes = readTestClass();
+			SymbolIndexWriter writer = new SymbolIndexWriter();
+			new Parser(writer.newClass("TestClass.class")).process(ByteBuffer.wrap(bytes));
+			Path file = tempDir.resolve("test.jcsi");
+			writer.write(file);
+			assertArrayEquals(writer.toByteArray(), Files.readAllBytes(file), "Same bytes for the same input");
+
+			SymbolIndex index = SymbolIndex.open(file);
+			assertEquals(1, index.getClassCount());
+			assertEquals("com/example/jcparser/test/TestClass", index.getClassName(0));
+			assertEquals("TestClass.class", index.getSource(0));
+			assertArrayEquals(new int[]{0}, index.find("java/lang/Object"));
+			assertArrayEquals(new int[]{0}, index.find("java/lang/Object.<init>:()V"));
+			assertArrayEquals(new int[]{0}, index.find("java/lang/Object.<init>"), "All overloads");
+			assertArrayEquals(new int[0], index.find("com/example/jcparser/test/TestClass"), "Own class is not a reference");
+			assertArrayEquals(new int[0], index.find("java/lang/Object.<ini"));
+		}
+
+		@Test
+		void class_hierarchy() {
+			ClassHierarchy hierarchy = new ClassHierarchy();
+			Stream.of("", "$TestRecord", "$TestSealed", "$ConsolePrintTest", "$TestService").parallel().forEach(name -> {
+				try {
+					new Parser(hierarchy.newClass(name)).process(ByteBuffer.wrap(readTestClass(name)));
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+			String prefix = "com/example/jcparser/test/TestClass$";
+			int testClass = hierarchy.getId("com/example/jcparser/test/TestClass");
+			int record = hierarchy.getId(prefix + "TestRecord");
+			int sealed = hierarchy.getId(prefix + "TestSealed");
+			int service = hierarchy.getId(prefix + "TestService");
+			int object = hierarchy.getId("java/lang/Object");
+			assertEquals(ClassHierarchy.NO_CLASS, hierarchy.getId("java/lang/Integer"));
+			assertEquals(hierarchy.getId("java/lang/Record"), hierarchy.getSuperClass(record));
+			assertTrue(hierarchy.isInterface(sealed));
+			assertEquals(-1, hierarchy.getAccessFlags(object), "Object is not parsed");
+			assertTrue(hierarchy.isSubtype(record, object));
+			assertFalse(hierarchy.isSubtype(object, record));
+			assertArrayEquals(new int[]{record}, hierarchy.getImplementors(sealed));
+			assertArrayEquals(new int[]{hierarchy.getId(prefix + "ConsolePrintTest")}, hierarchy.getImplementors(service));
+			assertTrue(Arrays.stream(hierarchy.getSubtypes(object)).anyMatch(id -> id == record));
+			assertArrayEquals(IntStream.of(sealed, object, hierarchy.getId("java/lang/Record")).sorted().toArray(),
+					hierarchy.getSupertypes(record));
+			assertArrayEquals(new int[]{record}, hierarchy.getTargets(ClassHierarchy.Edge.PERMITTED_SUBCLASS, sealed));
+			assertTrue(Arrays.stream(hierarchy.getTargets(ClassHierarchy.Edge.NEST_MEMBER, testClass))
+					.anyMatch(id -> id == record));
+			assertArrayEquals(new int[]{testClass}, hierarchy.getSources(ClassHierarchy.Edge.NEST_MEMBER, sealed));
+
+			int missing = hierarchy.getId("com/example/Missing");
+			assertEquals(ClassHierarchy.NO_CLASS, missing);
+			assertEquals(0, hierarchy.getSupertypes(missing).length);
+			assertEquals(0, hierarchy.getSubtypes(missing).length);
+			assertEquals(0, hierarchy.getImplementors(missing).length);
+			assertEquals(0, hierarchy.getTargets(ClassHierarchy.Edge.INTERFACE, missing).length);
+			assertEquals(ClassHierarchy.NO_CLASS, hierarchy.getSuperClass(missing));
+			assertFalse(hierarchy.isSubtype(record, missing));
+			assertFalse(hierarchy.isSubtype(missing, object));
+		}
+
+		@Test
+		void call_graph() throws IOException {
+			CallGraph graph = new CallGraph();
+			new Parser(graph.newClass("TestClass.class")).process(ByteBuffer.wrap(readTestClass()));
+			String owner = "com/example/jcparser/test/TestClass.";
+			int main = graph.getMethodId(owner + "main:([Ljava/lang/String;)V");
+			int testMethod = graph.getMethodId(owner + "testMethod:()V");
+			int oldCodeMethod = graph.getMethodId(owner + "oldCodeMethod:()I");
+			int println = graph.getMethodId("java/io/PrintStream.println:(Ljava/lang/String;)V");
+			assertTrue(graph.isDeclared(main));
+			assertFalse(graph.isDeclared(println));
+			assertTrue(Arrays.stream(graph.getCallees(main)).anyMatch(id -> id == testMethod));
+			assertArrayEquals(new int[]{main}, graph.getCallers(testMethod));
+			assertEquals(0, graph.getCallers(oldCodeMethod).length);
+			int[] reachable = graph.getReachable(main);
+			assertTrue(Arrays.stream(reachable).anyMatch(id -> id == println), "Called by testMethod");
+			assertFalse(Arrays.stream(reachable).anyMatch(id -> id == oldCodeMethod), "Dead code");
+			assertTrue(IntStream.range(0, graph.getEdgeCount()).map(graph::getCallee).mapToObj(graph::getMethodName)
+					.anyMatch(name -> name.startsWith("java/lang/invoke/StringConcatFactory.")), "Bootstrap method");
+			assertEquals(graph.getEdgeCount(), IntStream.range(0, graph.getMethodCount())
+					.map(id -> graph.getCallees(id).length).sum());
+
+			CallGraph nonAscii = new CallGraph();
+			new Parser(nonAscii.newClass("TestClass.class")).process(ByteBuffer.wrap(readNonAsciiTestClass()));
+			int method = nonAscii.getMethodId(owner + NON_ASCII_METHOD
+					+ ":(ILjava/lang/String;Ljava/lang/String;)Ljava/lang/String;");
+			assertNotEquals(CallGraph.NO_METHOD, method, "Found by its real name");
+			assertTrue(nonAscii.isDeclared(method));
+
+			int missing = graph.getMethodId(owner + "missing:()V");
+			assertEquals(CallGraph.NO_METHOD, missing);
+			assertEquals(0, graph.getCallees(missing).length);
+			assertEquals(0, graph.getCallers(missing).length);
+			assertEquals(0, graph.getReachable(missing).length);
+			assertArrayEquals(reachable, graph.getReachable(main, missing));
+		}
+
+		@Test
+		void annotation_scanner(@TempDir Path tempDir) throws IOException {
+			AnnotationScanner scanner = new AnnotationScanner();
+			new Parser(scanner.newClass("TestClass.class")).process(ByteBuffer.wrap(readTestClass()));
+			Path file = tempDir.resolve("annotations.jcsi");
+			scanner.write(file);
+			SymbolIndex index = SymbolIndex.open(file);
+			assertEquals(scanner.size(), index.getClassCount());
+			String owner = "com/example/jcparser/test/TestClass";
+			int[] deprecated = index.find("java/lang/Deprecated");
+			assertEquals(1, deprecated.length);
+			assertEquals(owner + ".oldCodeMethod:()I", index.getClassName(deprecated[0]));
+			assertEquals("TestClass.class", index.getSource(deprecated[0]));
+			assertEquals(List.of(owner + ".testMethod:()V",
+							owner + ".testMethodWithParameters:(ILjava/lang/String;Ljava/lang/String;)Ljava/lang/String;"),
+					Arrays.stream(index.find(owner + "$TestInvisibleAnnotation")).mapToObj(index::getClassName).sorted()
+							.toList(), "Method and parameter annotations");
+			assertArrayEquals(index.find(owner + "$TestAnnotation"), scanner.toIndex().find(owner + "$TestAnnotation"));
+		}
+
+		@Test
+		void constant_search() throws IOException {
+			byte[] bytes = readTestClass();
+			List<ConstantPoolEntry> constantPool = Parser.parse(bytes).constantPool();
+			ConstantSearch literal = new ConstantSearch(Pattern.compile("local string", Pattern.LITERAL));
+			ConstantSearch regex = new ConstantSearch(Pattern.compile("^Test (Record|service)$"));
+			new Parser(literal.newClass("TestClass.class")).process(ByteBuffer.wrap(bytes));
+			new Parser(regex.newClass("TestClass.class")).process(ByteBuffer.wrap(bytes));
+			List<ConstantSearch.Hit> hits = literal.getHits();
+			assertEquals(1, hits.size());
+			ConstantSearch.Hit hit = hits.get(0);
+			assertEquals("com/example/jcparser/test/TestClass", hit.className());
+			assertEquals("local string", hit.value());
+			assertTrue(hit.constant(), "String literal");
+			assertEquals(constantPool.get(hit.index()).getOffset(), hit.offset());
+			assertEquals("local string", ((ConstantPoolUtf8) constantPool.get(hit.index())).getUtf8());
+			assertEquals(List.of("Test Record", "Test service"),
+					regex.getHits().stream().map(ConstantSearch.Hit::value).sorted().toList());
+			ConstantSearch descriptors = new ConstantSearch(Pattern.compile("TestClass;", Pattern.LITERAL));
+			new Parser(descriptors.newClass("TestClass.class")).process(ByteBuffer.wrap(bytes));
+			assertFalse(descriptors.getHits().isEmpty(), "Descriptors are searched too");
+			assertFalse(descriptors.getHits().stream().anyMatch(ConstantSearch.Hit::constant));
+
+			ConstantSearch caseInsensitive =
+					new ConstantSearch(Pattern.compile("LOCAL String", Pattern.LITERAL | Pattern.CASE_INSENSITIVE));
+			new Parser(caseInsensitive.newClass("TestClass.class")).process(ByteBuffer.wrap(bytes));
+			assertEquals(List.of("local string"),
+					caseInsensitive.getHits().stream().map(ConstantSearch.Hit::value).toList(), "Literal with flags");
+
+			ConstantSearch nonAscii = new ConstantSearch(Pattern.compile(NON_ASCII_METHOD, Pattern.LITERAL));
+			new Parser(nonAscii.newClass("TestClass.class")).process(ByteBuffer.wrap(readNonAsciiTestClass()));
+			ByteArrayOutputStream printed = new ByteArrayOutputStream();
+			nonAscii.print(new PrintStream(printed));
+			assertTrue(printed.toString().endsWith(" testM\\u00E9thodWithParameter" + System.lineSeparator()),
+					"Escaped like in the dump: " + printed);
+		}
+
+		@Test
+		void parallel_output() throws IOException {
+			ClassLoader classloader = Thread.currentThread().getContextClassLoader();
+			File directory = new File(Objects.requireNonNull(classloader.getResource("classes")).getPath());
+			outStream.reset();
+			Parser.main(new String[]{directory.getPath()});
+			String sequential = outStream.toString();
+			outStream.reset();
+			Options options = new Options();
+			options.setThreads(4);
+			ArchiveParser archiveParser = new ArchiveParser(options);
+			archiveParser.process(directory);
+			assertEquals(sequential, outStream.toString(), "Same order as the sequential output");
+			outStream.reset();
+			archiveParser.process(directory);
+			assertEquals(sequential, outStream.toString(), "Same output from a new pool");
+			outStream.reset();
+			Parser.main(new String[]{"-v", directory.getPath()});
+			assertEquals(sequential, outStream.toString(), "Same order with a thread per file");
+			outStream.reset();
+			Parser.main(new String[]{"-v=2", directory.getPath()});
+			assertEquals(sequential, outStream.toString(), "Same order with two files in flight");
+			outStream.reset();
+		}
+
+		@Test
+		void skipped_bytes() throws IOException {
+			byte[] bytes = readTestClass();
+			ClassFile classFile = Parser.parse(bytes);
+			List<Attribute> attributes = new ArrayList<>(classFile.attributes());
+			Stream.concat(classFile.fields().stream(), classFile.methods().stream())
+					.forEach(member -> attributes.addAll(member.attributes()));
+			long expected = 0;
+			for (Attribute attribute : attributes) {
+				List<Attribute> skipped = attribute instanceof CodeAttribute code
+						? code.getAttributes() : List.of(attribute);
+				for (Attribute skippedAttribute : skipped) {
+					expected += 6 + skippedAttribute.getLength().getValue();
+				}
+			}
+			Parser parser = new Parser(new ClassFileVisitor() {
+				@Override
+				public boolean acceptAttribute(String name) {
+					return name.equals("Code");
+				}
+			});
+			parser.process(ByteBuffer.wrap(bytes));
+			assertEquals(expected, parser.getSkippedBytes());
+			String path = Objects.requireNonNull(Thread.currentThread().getContextClassLoader()
+					.getResource("classes/com/example/jcparser/test/TestClass.class")).getPath();
+			outStream.reset();
+			Parser.main(new String[]{"-a=Code", path});
+			assertTrue(outStream.toString().contains("Skipped attributes: " + expected + " bytes"), "Summary line");
+			outStream.reset();
+		}
 	}
-}
\ No newline at end of file
+}